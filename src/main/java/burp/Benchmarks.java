@@ -0,0 +1,189 @@
+package burp;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+// 插件内置的性能测试，结果输出到详情区域，便于在实际运行环境中对比各阶段吞吐量
+final class Benchmarks {
+
+    private static final int WARMUP_ROUNDS = 10;
+    private static final int MEASURE_ROUNDS = 5;
+
+    private Benchmarks() {
+    }
+
+    // 生成类似压缩后JS bundle的纯ASCII内容
+    static byte[] syntheticBundle(int size, long seed) {
+        Random random = new Random(seed);
+        String[] fragments = {
+                "function(e,t,n){\"use strict\";var r=n(12);",
+                "e.exports=function(){return fetch(\"/api/v1/users/\"+t)};",
+                "import(\"./static/js/chunk-vendors.js\");",
+                "var o={url:\"https://cdn.example.com/assets/app.css\",method:\"GET\"};",
+                "a.prototype.render=function(){return this.props.children};",
+                "require('./components/button');if(!t)throw new Error(\"a/b\");",
+                "n.p+\"static/media/logo.svg\";for(var i=0;i<e.length;i++)s+=e[i];"
+        };
+        StringBuilder sb = new StringBuilder(size + 128);
+        while (sb.length() < size) {
+            sb.append(fragments[random.nextInt(fragments.length)]);
+        }
+        sb.setLength(size);
+        return sb.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // ASCII快速路径与 new String(byte[]) 的解码吞吐量对比
+    static String decodeThroughput() {
+        byte[] body = syntheticBundle(8 * 1024 * 1024, 42);
+        double megabytes = body.length / (1024.0 * 1024.0);
+        // 声明为非ASCII兼容编码，测量包含7位检测在内的快速路径
+        Charset declared = Charset.isSupported("GBK") ? Charset.forName("GBK") : null;
+
+        long sink = 0;
+        long legacyNanos = Long.MAX_VALUE;
+        long fastNanos = Long.MAX_VALUE;
+        long legacyScanNanos = Long.MAX_VALUE;
+        long fastScanNanos = Long.MAX_VALUE;
+        int[] counter = new int[1];
+        LinkScanner.CandidateSink countingSink = (value, absolute) -> counter[0]++;
+
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURE_ROUNDS; round++) {
+            long start = System.nanoTime();
+            String legacy = new String(body);
+            long legacyTime = System.nanoTime() - start;
+            sink += legacy.length();
+
+            start = System.nanoTime();
+            CharSequence fast = BodyDecoder.decode(body, 0, body.length, declared);
+            long fastTime = System.nanoTime() - start;
+            sink += fast.length();
+
+            start = System.nanoTime();
+            LinkScanner.scan(legacy, 0, legacy.length(), LinkScanner.MODE_SCRIPT, countingSink);
+            long legacyScanTime = System.nanoTime() - start + legacyTime;
+
+            start = System.nanoTime();
+            LinkScanner.scan(fast, 0, fast.length(), LinkScanner.MODE_SCRIPT, countingSink);
+            long fastScanTime = System.nanoTime() - start + fastTime;
+
+            if (round >= WARMUP_ROUNDS) {
+                legacyNanos = Math.min(legacyNanos, legacyTime);
+                fastNanos = Math.min(fastNanos, fastTime);
+                legacyScanNanos = Math.min(legacyScanNanos, legacyScanTime);
+                fastScanNanos = Math.min(fastScanNanos, fastScanTime);
+            }
+        }
+
+        return String.format(
+                "【解码基准】 样本: %.1f MB 纯ASCII (校验值 %d)\n" +
+                        "  new String(byte[])      解码: %8.1f MB/s, 解码+扫描: %8.1f MB/s\n" +
+                        "  ASCII快速路径(字节视图) 解码: %8.1f MB/s, 解码+扫描: %8.1f MB/s\n",
+                megabytes, (sink + counter[0]) & 0xFFFF,
+                throughput(megabytes, legacyNanos), throughput(megabytes, legacyScanNanos),
+                throughput(megabytes, fastNanos), throughput(megabytes, fastScanNanos)
+        );
+    }
+
+    // 20MB合成bundle在1~16个线程下的并行扫描吞吐量，以单线程顺序扫描为基准
+    static String parallelScaling() {
+        byte[] bytes = syntheticBundle(20 * 1024 * 1024, 7);
+        CharSequence body = BodyDecoder.view(bytes, 0, bytes.length, null);
+        double megabytes = bytes.length / (1024.0 * 1024.0);
+        int[] counter = new int[1];
+        LinkScanner.CandidateSink countingSink = (value, absolute) -> counter[0]++;
+
+        long sequentialNanos = Long.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS / 2 + MEASURE_ROUNDS; round++) {
+            counter[0] = 0;
+            long start = System.nanoTime();
+            JsLexer.scanLinks(body, 0, body.length(), countingSink);
+            if (round >= WARMUP_ROUNDS / 2) sequentialNanos = Math.min(sequentialNanos, System.nanoTime() - start);
+        }
+        int expected = counter[0];
+
+        StringBuilder sb = new StringBuilder(String.format(
+                "【并行扫描基准】 样本: %.1f MB, CPU核数: %d, 候选: %d\n  顺序扫描          %8.1f MB/s\n",
+                megabytes, Runtime.getRuntime().availableProcessors(), expected, throughput(megabytes, sequentialNanos)));
+        for (int threads = 1; threads <= 16; threads *= 2) {
+            ForkJoinPool pool = ParallelJsScanner.newPool(threads);
+            long best = Long.MAX_VALUE;
+            boolean consistent = true;
+            try {
+                for (int round = 0; round < WARMUP_ROUNDS / 2 + MEASURE_ROUNDS; round++) {
+                    counter[0] = 0;
+                    long start = System.nanoTime();
+                    ParallelJsScanner.scanLinks(body, 0, body.length(), countingSink, null, pool);
+                    if (round >= WARMUP_ROUNDS / 2) best = Math.min(best, System.nanoTime() - start);
+                    consistent &= counter[0] == expected;
+                }
+            } finally {
+                pool.shutdown();
+            }
+            sb.append(String.format("  %2d 线程           %8.1f MB/s, 加速比: %.2fx%s\n", threads, throughput(megabytes, best),
+                    (double) sequentialNanos / best, consistent ? "" : " (候选数量不一致)"));
+        }
+        return sb.toString();
+    }
+
+    // 1个和32个线程同时认领同一批URL（每个线程提交全部URL）的吞吐量，并核对每个URL只被认领一次
+    static String claimScaling() throws InterruptedException {
+        int distinct = 64 * 1024;
+        String[] urls = new String[distinct];
+        for (int i = 0; i < distinct; i++) urls[i] = "https://example.com/api/v1/item/" + i;
+
+        StringBuilder sb = new StringBuilder(String.format("【URL认领基准】 URL: %d, CPU核数: %d\n",
+                distinct, Runtime.getRuntime().availableProcessors()));
+        for (int threads : new int[]{1, 32}) {
+            long best = Long.MAX_VALUE;
+            boolean exactlyOnce = true;
+            for (int round = 0; round < WARMUP_ROUNDS / 2 + MEASURE_ROUNDS; round++) {
+                BurpExtender.DomainContext context = new BurpExtender.DomainContext(false);
+                long[] result = runClaims(threads, urls, context);
+                exactlyOnce &= result[0] == distinct;
+                if (round >= WARMUP_ROUNDS / 2) best = Math.min(best, result[1]);
+            }
+            double claims = (double) threads * distinct;
+            sb.append(String.format("  %2d 线程  %8.1f 百万次/s%s\n", threads, best <= 0 ? 0 : claims / (best / 1000.0),
+                    exactlyOnce ? "" : " (存在重复认领)"));
+        }
+        return sb.toString();
+    }
+
+    // 返回 {认领成功次数, 耗时纳秒}
+    private static long[] runClaims(int threads, String[] urls, BurpExtender.DomainContext context)
+            throws InterruptedException {
+        LongAdder claimed = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int offset = t * (urls.length / threads);
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    // 各线程从不同位置开始，同一URL会被多个线程并发提交
+                    for (int i = 0; i < urls.length; i++) {
+                        if (context.claim(urls[(offset + i) % urls.length])) claimed.increment();
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "APIFuzz-bench-" + t);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return new long[]{claimed.sum(), System.nanoTime() - begin};
+    }
+
+    static double throughput(double megabytes, long nanos) {
+        return nanos <= 0 ? 0 : megabytes / (nanos / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,135 @@
+package burp;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 响应体解码：根据Content-Type中的charset选择解码方式，
+// 7位纯ASCII或ASCII兼容编码直接使用字节视图，其余编码使用线程内复用的解码器和缓冲区
+final class BodyDecoder {
+
+    // 超过该大小的缓冲区用完即丢弃，不在线程中长期保留
+    private static final int MAX_POOLED_CHARS = 4 * 1024 * 1024;
+
+    private static final ThreadLocal<Map<Charset, CharsetDecoder>> DECODERS =
+            ThreadLocal.withInitial(HashMap::new);
+    private static final ThreadLocal<CharBuffer> BUFFERS =
+            ThreadLocal.withInitial(() -> CharBuffer.allocate(64 * 1024));
+
+    private static final AtomicLong fastPathBodies = new AtomicLong();
+    private static final AtomicLong fastPathBytes = new AtomicLong();
+    private static final AtomicLong decodedBodies = new AtomicLong();
+    private static final AtomicLong decodedBytes = new AtomicLong();
+
+    private BodyDecoder() {
+    }
+
+    // 从响应头中读取charset，未声明或不支持时返回null
+    static Charset charsetOf(List<String> headers) {
+        if (headers == null) return null;
+        for (String header : headers) {
+            int colon = header.indexOf(':');
+            if (colon <= 0 || !header.substring(0, colon).trim().equalsIgnoreCase("Content-Type")) continue;
+
+            for (String param : header.substring(colon + 1).split(";")) {
+                int eq = param.indexOf('=');
+                if (eq <= 0 || !param.substring(0, eq).trim().equalsIgnoreCase("charset")) continue;
+
+                String name = param.substring(eq + 1).trim().replace("\"", "").replace("'", "");
+                try {
+                    return Charset.forName(name);
+                } catch (Exception ex) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    // ASCII字节在这些编码中含义不变，且多字节序列不会出现ASCII范围的字节
+    static boolean isAsciiCompatible(Charset charset) {
+        if (charset == null) return true;
+        String name = charset.name().toUpperCase(Locale.ROOT);
+        return name.equals("UTF-8") || name.equals("US-ASCII")
+                || name.startsWith("ISO-8859-") || name.startsWith("WINDOWS-125")
+                || name.startsWith("KOI8");
+    }
+
+    static boolean isSevenBitClean(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] < 0) return false;
+        }
+        return true;
+    }
+
+    // 是否可以不解码、直接以字节视图扫描
+    static boolean canViewBytes(byte[] bytes, int from, int to, Charset charset) {
+        return isAsciiCompatible(charset) || isSevenBitClean(bytes, from, to);
+    }
+
+    // 返回的CharSequence可能引用线程内复用的缓冲区，只能在当前线程的下一次解码前使用
+    static CharSequence decode(byte[] bytes, int from, int to, Charset charset) {
+        return canViewBytes(bytes, from, to, charset) ? view(bytes, from, to, charset) : decodeWithCharset(bytes, from, to, charset);
+    }
+
+    // 片段转字符串时按charset解码，null为UTF-8
+    static CharSequence view(byte[] bytes, int from, int to, Charset charset) {
+        fastPathBodies.incrementAndGet();
+        fastPathBytes.addAndGet(to - from);
+        return new ByteCharSequence(bytes, from, to, charset);
+    }
+
+    static CharSequence decodeWithCharset(byte[] bytes, int from, int to, Charset charset) {
+        decodedBodies.incrementAndGet();
+        decodedBytes.addAndGet(to - from);
+
+        CharsetDecoder decoder = decoderFor(charset);
+        int required = (int) Math.min(Integer.MAX_VALUE - 8L, (long) ((to - from) * (double) decoder.maxCharsPerByte()) + 1);
+        CharBuffer out = pooledBuffer(required);
+
+        decoder.decode(ByteBuffer.wrap(bytes, from, to - from), out, true);
+        decoder.flush(out);
+        out.flip();
+        return out;
+    }
+
+    static CharsetDecoder decoderFor(Charset charset) {
+        CharsetDecoder decoder = DECODERS.get().computeIfAbsent(charset, c -> c.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE));
+        decoder.reset();
+        return decoder;
+    }
+
+    static CharBuffer pooledBuffer(int required) {
+        if (required > MAX_POOLED_CHARS) {
+            return CharBuffer.allocate(required);
+        }
+        CharBuffer buffer = BUFFERS.get();
+        if (buffer.capacity() < required) {
+            buffer = CharBuffer.allocate(Math.min(MAX_POOLED_CHARS, Math.max(required, buffer.capacity() * 2)));
+            BUFFERS.set(buffer);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    // 预览等需要完整字符串的场景
+    static String decodeToString(byte[] bytes, int from, int to, Charset charset) {
+        return new String(bytes, from, to - from, charset == null ? StandardCharsets.UTF_8 : charset);
+    }
+
+    static String getStatistics() {
+        return String.format("【响应解码】 字节视图: %d 个 (%s), 字符集解码: %d 个 (%s)\n",
+                fastPathBodies.get(), BurpExtender.formatSize(fastPathBytes.get()),
+                decodedBodies.get(), BurpExtender.formatSize(decodedBytes.get()));
+    }
+}
@@ -0,0 +1,135 @@
+package burp;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// 保留已提取资源的响应体，供规则修改后重新提取。
+// 内容按最快级别压缩后存储，相同内容（同一哈希和长度）只保存一份，以哈希和长度为键；
+// 压缩后的总大小超过上限后不再保留新的响应体
+final class BodyStore {
+
+    static final class Body {
+        private final byte[] compressed;
+        final int length;
+
+        Body(byte[] compressed, int length) {
+            this.compressed = compressed;
+            this.length = length;
+        }
+
+        byte[] inflate() throws DataFormatException {
+            Inflater inflater = new Inflater(true);
+            try {
+                inflater.setInput(compressed);
+                byte[] out = new byte[length];
+                int n = 0;
+                while (n < length && !inflater.finished()) {
+                    int read = inflater.inflate(out, n, length - n);
+                    if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                    n += read;
+                }
+                if (n != length) throw new DataFormatException("保留的响应体不完整");
+                return out;
+            } finally {
+                inflater.end();
+            }
+        }
+    }
+
+    private static final class Key {
+        final long hash;
+        final int length;
+
+        Key(long hash, int length) {
+            this.hash = hash;
+            this.length = length;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).hash == hash && ((Key) o).length == length;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (hash ^ (hash >>> 32)) * 31 + length;
+        }
+    }
+
+    private static final ThreadLocal<Deflater> DEFLATERS = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED, true));
+    private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[64 * 1024]);
+
+    private final Map<Key, Body> bodies = new ConcurrentHashMap<>();
+    private final AtomicLong storedBytes = new AtomicLong();
+    private final AtomicLong rawBytes = new AtomicLong();
+    private final AtomicLong shared = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    // 超过上限时返回null
+    Body retain(long hash, byte[] bytes, int from, int to, long limitBytes) {
+        Key key = new Key(hash, to - from);
+        Body existing = bodies.get(key);
+        if (existing != null) {
+            shared.incrementAndGet();
+            return existing;
+        }
+        if (storedBytes.get() >= limitBytes) {
+            rejected.incrementAndGet();
+            return null;
+        }
+
+        byte[] compressed = compress(bytes, from, to);
+        if (storedBytes.addAndGet(compressed.length) > limitBytes) {
+            storedBytes.addAndGet(-compressed.length);
+            rejected.incrementAndGet();
+            return null;
+        }
+        Body body = new Body(compressed, to - from);
+        Body previous = bodies.putIfAbsent(key, body);
+        if (previous != null) {
+            // 并发保留同一内容，使用先放入的一份
+            storedBytes.addAndGet(-compressed.length);
+            shared.incrementAndGet();
+            return previous;
+        }
+        rawBytes.addAndGet(to - from);
+        return body;
+    }
+
+    private static byte[] compress(byte[] bytes, int from, int to) {
+        Deflater deflater = DEFLATERS.get();
+        byte[] buffer = BUFFERS.get();
+        deflater.reset();
+        deflater.setInput(bytes, from, to - from);
+        deflater.finish();
+        // 文本通常能压缩到原来的1/4以下，不够时按需扩容
+        byte[] out = new byte[Math.max(64, (to - from) / 4)];
+        int n = 0;
+        while (!deflater.finished()) {
+            int written = deflater.deflate(buffer);
+            if (n + written > out.length) out = Arrays.copyOf(out, Math.max(out.length * 2, n + written));
+            System.arraycopy(buffer, 0, out, n, written);
+            n += written;
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    void clear() {
+        bodies.clear();
+        storedBytes.set(0);
+        rawBytes.set(0);
+    }
+
+    String getStatistics() {
+        long raw = rawBytes.get();
+        long stored = storedBytes.get();
+        return String.format("【响应体保留】 保留: %d 个, 原始: %s, 压缩后: %s (%.1f%%), 共享: %d, 超出上限: %d\n",
+                bodies.size(), BurpExtender.formatSize(raw), BurpExtender.formatSize(stored),
+                raw == 0 ? 0.0 : stored * 100.0 / raw, shared.get(), rejected.get());
+    }
+}
@@ -8,15 +8,23 @@ import java.awt.datatransfer.StringSelection;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.net.URL;
+import java.nio.charset.Charset;
 import java.util.*;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-public class BurpExtender implements IBurpExtender, IHttpListener, ITab, IContextMenuFactory {
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.PatternSyntaxException;
+
+public class BurpExtender implements IBurpExtender, IHttpListener, ITab, IContextMenuFactory, IExtensionStateListener {
     private IBurpExtenderCallbacks callbacks;
     private IExtensionHelpers helpers;
     private JPanel mainPanel;
@@ -28,6 +36,19 @@ public class BurpExtender implements IBurpExtender, IHttpListener, ITab, IContex
     private final Map<String, DomainContext> domainContextMap = new ConcurrentHashMap<>();
     private final ExecutorService executorService = Executors.newFixedThreadPool(10);
 
+    // 响应解析管道：监听线程只入队，解析在工作线程中完成
+    private static final int INGEST_QUEUE_CAPACITY = 2048;
+    private static final int INGEST_WORKERS = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
+    private IngestPipeline ingestPipeline;
+    private final ExtractionSettings settings = new ExtractionSettings();
+    private final LongAdder candidateCount = new LongAdder();
+    private final LongAdder resolveCount = new LongAdder();
+    private final GraphQlCatalog graphQlCatalog = new GraphQlCatalog();
+    private final ExtractionCache extractionCache = new ExtractionCache();
+    private final BodyStore bodyStore = new BodyStore();
+    private final PathTemplater pathTemplates = new PathTemplater();
+    private final AtomicBoolean reExtracting = new AtomicBoolean();
+
     // 新增变量：存储当前选择的资源和提取结果
     private ResourceEntry currentSelectedResource = null;
     private List<ExtractedLink> currentExtractedLinks = Collections.synchronizedList(new ArrayList<>());
@@ -51,6 +72,16 @@ public class BurpExtender implements IBurpExtender, IHttpListener, ITab, IContex
 
         // 注册上下文菜单
         callbacks.registerContextMenuFactory(this);
+        callbacks.registerExtensionStateListener(this);
+        settings.load(callbacks);
+
+        ingestPipeline = new IngestPipeline(
+                INGEST_QUEUE_CAPACITY,
+                INGEST_WORKERS,
+                IngestPipeline.ShedPolicy.DROP_NEWEST,
+                this::processResponse,
+                callbacks::printError
+        );
 
         initUI();
         callbacks.customizeUiComponent(mainPanel);
@@ -167,9 +198,33 @@ public class BurpExtender implements IBurpExtender, IHttpListener, ITab, IContex
             }
         });
 
+        JButton statsButton = createStyledButton("统计信息", new Color(110, 90, 160));
+        statsButton.addActionListener(e -> showStatistics());
+
+        JButton settingsButton = createStyledButton("提取设置", new Color(90, 110, 130));
+        settingsButton.addActionListener(e -> showSettingsDialog());
+
+        JButton rulesButton = createStyledButton("自定义规则", new Color(60, 130, 120));
+        rulesButton.addActionListener(e -> showRulesDialog());
+
+        JButton reExtractButton = createStyledButton("重新提取", new Color(60, 110, 160));
+        reExtractButton.addActionListener(e -> reExtractAll());
+
+        JButton benchmarkButton = createStyledButton("性能测试", new Color(150, 110, 60));
+        benchmarkButton.addActionListener(e -> runBenchmarks());
+
+        JButton graphQlButton = createStyledButton("GraphQL目录", new Color(170, 60, 130));
+        graphQlButton.addActionListener(e -> showGraphQlCatalog());
+
         buttonPanel.add(clearButton);
         buttonPanel.add(exportButton);
         buttonPanel.add(autoCrawlToggle);
+        buttonPanel.add(statsButton);
+        buttonPanel.add(settingsButton);
+        buttonPanel.add(rulesButton);
+        buttonPanel.add(reExtractButton);
+        buttonPanel.add(benchmarkButton);
+        buttonPanel.add(graphQlButton);
 
         JPanel bottomPanel = new JPanel(new BorderLayout());
         bottomPanel.setBackground(backgroundColor);
@@ -215,11 +270,318 @@ public class BurpExtender implements IBurpExtender, IHttpListener, ITab, IContex
 
         if (confirm == JOptionPane.YES_OPTION) {
             domainContextMap.clear();
+            graphQlCatalog.clear();
+            extractionCache.clear();
+            bodyStore.clear();
+            pathTemplates.clear();
             resourceTableModel.setRowCount(0);
             detailArea.setText("");
         }
     }
 
+    private void showStatistics() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(repeatString("=", 100)).append("\n");
+        sb.append(ingestPipeline.getStatistics());
+        sb.append(BodyDecoder.getStatistics());
+        sb.append(StreamingScanner.getStatistics());
+        sb.append(ParallelJsScanner.getStatistics());
+        sb.append(urlSetStatistics());
+        sb.append(UrlCanonicalizer.getStatistics());
+        sb.append(pathTemplates.getStatistics());
+        List<CacheBusterDetector> cacheBusters = new ArrayList<>();
+        for (DomainContext context : domainContextMap.values()) cacheBusters.add(context.cacheBusters);
+        sb.append(CacheBusterDetector.getStatistics(cacheBusters));
+        sb.append(settings.sizeTiers.getStatistics());
+        sb.append(WebpackChunkExtractor.getStatistics());
+        sb.append(ManifestExtractor.getStatistics());
+        sb.append(HtmlTokenizer.getStatistics());
+        sb.append(JsonScanner.getStatistics());
+        sb.append(OpenApiImporter.getStatistics());
+        sb.append(extractionCache.getStatistics());
+        sb.append(bodyStore.getStatistics());
+        sb.append(settings.vendors.getStatistics());
+        sb.append(settings.rules.getStatistics());
+        sb.append(DeadlineCharSequence.getStatistics());
+        sb.append(String.format("【候选链接】 候选: %d, 相对路径解析: %d\n", candidateCount.sum(), resolveCount.sum()));
+        sb.append(repeatString("=", 100)).append("\n\n");
+        detailArea.append(sb.toString());
+        detailArea.setCaretPosition(detailArea.getDocument().getLength());
+    }
+
+    private String urlSetStatistics() {
+        long urls = 0;
+        long bytes = 0;
+        for (DomainContext context : domainContextMap.values()) {
+            urls += context.loadedUrls.size();
+            bytes += context.loadedUrls.memoryBytes();
+        }
+        return String.format("【URL去重】 域名: %d, URL: %d, 指纹表: %s (%s), 每个URL: %.1f 字节\n",
+                domainContextMap.size(), urls, formatSize(bytes), settings.offHeapUrlSet ? "堆外" : "堆内",
+                urls == 0 ? 0.0 : (double) bytes / urls);
+    }
+
+    private void showGraphQlCatalog() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(repeatString("=", 100)).append("\n");
+        sb.append(graphQlCatalog.isEmpty() ? "尚未发现GraphQL端点或操作\n" : graphQlCatalog.report());
+        sb.append(repeatString("=", 100)).append("\n\n");
+        detailArea.append(sb.toString());
+        detailArea.setCaretPosition(detailArea.getDocument().getLength());
+    }
+
+    private void showSettingsDialog() {
+        JSpinner streamingThreshold = new JSpinner(new SpinnerNumberModel(settings.streamingThresholdKb, 64, 1024 * 1024, 256));
+        JSpinner sampleWindow = new JSpinner(new SpinnerNumberModel(settings.sampleWindowKb, 16, 64 * 1024, 64));
+        JSpinner scanBudget = new JSpinner(new SpinnerNumberModel(settings.scanBudgetMs, 50, 600 * 1000, 500));
+        JSpinner retainBody = new JSpinner(new SpinnerNumberModel(settings.retainBodyMb, 0, 64 * 1024, 64));
+        JSpinner parallelScan = new JSpinner(new SpinnerNumberModel(settings.parallelScanKb, 0, 1024 * 1024, 1024));
+
+        JPanel panel = new JPanel(new GridLayout(0, 3, 10, 8));
+        panel.add(new JLabel("流式扫描阈值 (KB):"));
+        panel.add(streamingThreshold);
+        panel.add(new JLabel());
+        panel.add(new JLabel("采样头/尾大小 (KB):"));
+        panel.add(sampleWindow);
+        panel.add(new JLabel());
+        panel.add(new JLabel("单次扫描时间预算 (ms):"));
+        panel.add(scanBudget);
+        panel.add(new JLabel());
+        panel.add(new JLabel("保留响应体上限 (MB, 压缩后):"));
+        panel.add(retainBody);
+        panel.add(new JLabel());
+        panel.add(new JLabel("JS并行扫描阈值 (KB, 0为关闭):"));
+        panel.add(parallelScan);
+        panel.add(new JLabel());
+
+        // 每个MIME类别的完整提取上限和采样上限
+        panel.add(new JLabel("类别"));
+        panel.add(new JLabel("完整提取上限 (KB)"));
+        panel.add(new JLabel("采样上限 (KB)"));
+        Map<SizeTierPolicy.MimeClass, JSpinner[]> tierSpinners = new EnumMap<>(SizeTierPolicy.MimeClass.class);
+        for (SizeTierPolicy.MimeClass mimeClass : SizeTierPolicy.MimeClass.values()) {
+            int[] limits = settings.sizeTiers.getLimits(mimeClass);
+            JSpinner fullLimit = new JSpinner(new SpinnerNumberModel(limits[0], 1, 4 * 1024 * 1024, 256));
+            JSpinner sampleLimit = new JSpinner(new SpinnerNumberModel(limits[1], 1, 4 * 1024 * 1024, 1024));
+            tierSpinners.put(mimeClass, new JSpinner[]{fullLimit, sampleLimit});
+            panel.add(new JLabel(mimeClass.displayName));
+            panel.add(fullLimit);
+            panel.add(sampleLimit);
+        }
+
+        // 第三方库：内置规则开关和自定义文件名规则
+        JCheckBox offHeapUrlSet = new JCheckBox("已处理URL指纹表放在堆外内存 (对新域名生效)", settings.offHeapUrlSet);
+        JCheckBox sortQueryParams = new JCheckBox("URL规范化时按参数名排序查询参数", settings.sortQueryParams);
+        JCheckBox templatePaths = new JCheckBox("按路径模板合并 (/user/123 与 /user/456 归为 /user/{id}，只提取和爬取第一个实例)",
+                settings.templatePaths);
+        JCheckBox collapseCacheBusters = new JCheckBox("合并版本化资源 (?v=、?_= 等缓存参数和文件名哈希不同但内容相同时只提取一次)",
+                settings.collapseCacheBusters);
+        JCheckBox vendorBuiltin = new JCheckBox("跳过内置的第三方库 (jQuery、React、lodash、moment、vendor chunk 等)",
+                settings.vendors.builtinEnabled);
+        JTextArea vendorPatterns = new JTextArea(settings.vendors.getUserPatternText(), 4, 40);
+        JPanel vendorPanel = new JPanel(new BorderLayout(0, 5));
+        JPanel checkPanel = new JPanel(new GridLayout(0, 1));
+        checkPanel.add(offHeapUrlSet);
+        checkPanel.add(sortQueryParams);
+        checkPanel.add(templatePaths);
+        checkPanel.add(collapseCacheBusters);
+        checkPanel.add(vendorBuiltin);
+        vendorPanel.add(checkPanel, BorderLayout.NORTH);
+        vendorPanel.add(new JLabel("自定义第三方库文件名规则 (正则，每行一个；已标记哈希: "
+                + settings.vendors.hashCount() + " 个):"), BorderLayout.CENTER);
+        vendorPanel.add(new JScrollPane(vendorPatterns), BorderLayout.SOUTH);
+
+        JPanel content = new JPanel(new BorderLayout(0, 10));
+        content.add(panel, BorderLayout.CENTER);
+        content.add(vendorPanel, BorderLayout.SOUTH);
+
+        int result = JOptionPane.showConfirmDialog(mainPanel, content, "提取设置",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (result == JOptionPane.OK_OPTION) {
+            try {
+                settings.vendors.setUserPatterns(vendorPatterns.getText());
+            } catch (PatternSyntaxException ex) {
+                JOptionPane.showMessageDialog(mainPanel, "第三方库规则无效: " + ex.getDescription(),
+                        "提示", JOptionPane.WARNING_MESSAGE);
+            }
+            settings.vendors.builtinEnabled = vendorBuiltin.isSelected();
+            settings.offHeapUrlSet = offHeapUrlSet.isSelected();
+            settings.sortQueryParams = sortQueryParams.isSelected();
+            settings.templatePaths = templatePaths.isSelected();
+            settings.collapseCacheBusters = collapseCacheBusters.isSelected();
+            settings.streamingThresholdKb = (Integer) streamingThreshold.getValue();
+            settings.sampleWindowKb = (Integer) sampleWindow.getValue();
+            settings.scanBudgetMs = (Integer) scanBudget.getValue();
+            settings.retainBodyMb = (Integer) retainBody.getValue();
+            settings.parallelScanKb = (Integer) parallelScan.getValue();
+            for (Map.Entry<SizeTierPolicy.MimeClass, JSpinner[]> entry : tierSpinners.entrySet()) {
+                settings.sizeTiers.setLimits(entry.getKey(),
+                        (Integer) entry.getValue()[0].getValue(),
+                        (Integer) entry.getValue()[1].getValue());
+            }
+            settings.save(callbacks);
+        }
+    }
+
+    private void showRulesDialog() {
+        JTextArea rulesArea = new JTextArea(settings.rules.current().text, 12, 70);
+        rulesArea.setFont(new Font("Consolas", Font.PLAIN, 12));
+        JPanel content = new JPanel(new BorderLayout(0, 8));
+        content.add(new JLabel("<html>每行一条：名称 | 类别 | 正则，# 开头为注释<br>"
+                + "类别: SCRIPT, JSON, HTML, CSS, XML, TEXT，逗号分隔，* 为全部<br>"
+                + "有捕获组时取第一个捕获组，否则取整个匹配。例如:<br>"
+                + "rpc | SCRIPT | callRpc\\(\\s*['\"]([^'\"]+)['\"]</html>"), BorderLayout.NORTH);
+        content.add(new JScrollPane(rulesArea), BorderLayout.CENTER);
+
+        while (JOptionPane.showConfirmDialog(mainPanel, content, "自定义提取规则",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE) == JOptionPane.OK_OPTION) {
+            try {
+                // 立即生效，正在进行的提取仍使用旧规则完成
+                settings.rules.update(rulesArea.getText());
+                settings.rules.save(callbacks);
+                detailArea.append("自定义规则已更新: " + settings.rules.current().rules.size() + " 条\n");
+                return;
+            } catch (IllegalArgumentException ex) {
+                JOptionPane.showMessageDialog(mainPanel, ex.getMessage(), "规则无效", JOptionPane.WARNING_MESSAGE);
+            }
+        }
+    }
+
+    // 用当前的规则和设置重新提取所有保留了响应体的资源
+    private void reExtractAll() {
+        if (!reExtracting.compareAndSet(false, true)) {
+            JOptionPane.showMessageDialog(mainPanel, "重新提取正在进行中", "提示", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        List<ResourceEntry> entries = new ArrayList<>();
+        int notRetained = 0;
+        for (DomainContext context : domainContextMap.values()) {
+            for (ResourceEntry entry : context.resourceList) {
+                if (entry.body != null) {
+                    entries.add(entry);
+                } else if (entry.vendor == null && entry.tier != SizeTierPolicy.Tier.METADATA_ONLY) {
+                    notRetained++;
+                }
+            }
+        }
+        if (entries.isEmpty()) {
+            reExtracting.set(false);
+            JOptionPane.showMessageDialog(mainPanel, "没有保留响应体的资源", "提示", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
+        ProgressMonitor monitor = new ProgressMonitor(mainPanel, "重新提取 " + entries.size() + " 个资源", "", 0, entries.size());
+        monitor.setMillisToDecideToPopup(0);
+        monitor.setMillisToPopup(0);
+        int skipped = notRetained;
+        executorService.submit(() -> {
+            try {
+                runReExtraction(entries, skipped, monitor);
+            } finally {
+                reExtracting.set(false);
+            }
+        });
+    }
+
+    private void runReExtraction(List<ResourceEntry> entries, int notRetained, ProgressMonitor monitor) {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+            Thread t = new Thread(r, "APIFuzz-reextract-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        CompletionService<Integer> completion = new ExecutorCompletionService<>(pool);
+        long start = System.nanoTime();
+        Map<Future<Integer>, ResourceEntry> byFuture = new HashMap<>();
+        for (ResourceEntry entry : entries) {
+            // 取消后尚未开始的资源直接跳过，正在扫描的受时间预算限制
+            byFuture.put(completion.submit(() -> cancelled.get() ? -1 : reExtract(entry)), entry);
+        }
+        // 域名 -> {重新提取的资源数, 新增链接数}
+        Map<String, int[]> summary = new TreeMap<>();
+        int done = 0;
+        int failed = 0;
+        int skipped = 0;
+        try {
+            for (int i = 0; i < entries.size(); i++) {
+                Future<Integer> future = completion.take();
+                ResourceEntry entry = byFuture.get(future);
+                try {
+                    int added = future.get();
+                    if (added < 0) {
+                        skipped++;
+                    } else {
+                        int[] counts = summary.computeIfAbsent(entry.domain, k -> new int[2]);
+                        counts[0]++;
+                        counts[1] += added;
+                    }
+                } catch (ExecutionException ex) {
+                    failed++;
+                    callbacks.printError("重新提取失败: " + entry.url + " - " + ex.getCause());
+                }
+                int progress = ++done;
+                SwingUtilities.invokeLater(() -> {
+                    if (monitor.isCanceled()) cancelled.set(true);
+                    monitor.setProgress(progress);
+                    monitor.setNote(progress + " / " + entries.size());
+                });
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            cancelled.set(true);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(repeatString("=", 100)).append("\n");
+        sb.append(String.format("重新提取%s: %d 个资源, 耗时 %.1f s, 线程: %d\n", cancelled.get() ? " (已取消)" : "",
+                entries.size() - skipped - failed, (System.nanoTime() - start) / 1e9, Runtime.getRuntime().availableProcessors()));
+        int totalAdded = 0;
+        for (Map.Entry<String, int[]> domain : summary.entrySet()) {
+            sb.append(String.format("  %-40s 资源: %d, 新增链接: %d\n", domain.getKey(), domain.getValue()[0], domain.getValue()[1]));
+            totalAdded += domain.getValue()[1];
+        }
+        sb.append(String.format("共新增链接: %d, 跳过: %d, 失败: %d, 未保留响应体: %d\n", totalAdded, skipped, failed, notRetained));
+        sb.append(repeatString("=", 100)).append("\n\n");
+        String report = sb.toString();
+        SwingUtilities.invokeLater(() -> {
+            monitor.close();
+            detailArea.append(report);
+            detailArea.setCaretPosition(detailArea.getDocument().getLength());
+        });
+    }
+
+    // 返回新增的链接数
+    private int reExtract(ResourceEntry entry) throws Exception {
+        Set<String> before = new HashSet<>(entry.extractedLinks);
+        // 采样窗口、时间预算等设置不在缓存键中，重新提取不使用缓存的结果
+        extractLinksFromBody(entry, entry.body.inflate(), 0, entry.charset, false);
+        int added = 0;
+        for (String link : entry.extractedLinks) {
+            if (!before.contains(link)) added++;
+        }
+        return added;
+    }
+
+    private void runBenchmarks() {
+        detailArea.append("开始性能测试...\n");
+        executorService.submit(() -> {
+            String report;
+            try {
+                report = Benchmarks.decodeThroughput() + Benchmarks.parallelScaling() + Benchmarks.claimScaling();
+            } catch (Exception ex) {
+                report = "【错误】性能测试失败: " + ex.getMessage() + "\n";
+            }
+            String result = report + "\n";
+            SwingUtilities.invokeLater(() -> {
+                detailArea.append(result);
+                detailArea.setCaretPosition(detailArea.getDocument().getLength());
+            });
+        });
+    }
+
     private void exportResults() {
         if (resourceTableModel.getRowCount() == 0) {
             JOptionPane.showMessageDialog(mainPanel,
@@ -248,6 +610,15 @@ public class BurpExtender implements IBurpExtender, IHttpListener, ITab, IContex
                 JOptionPane.INFORMATION_MESSAGE);
     }
 
+    private ResourceEntry findEntry(String domain, String url) {
+        DomainContext context = domainContextMap.get(domain);
+        if (context == null) return null;
+        for (ResourceEntry entry : context.resourceList) {
+            if (entry.url.equals(url)) return entry;
+        }
+        return null;
+    }
+
     public void extractDetailsForUrl(String url) {
         for (int i = 0; i < resourceTableModel.getRowCount(); i++) {
             if (resourceTableModel.getValueAt(i, 2).equals(url)) {
@@ -289,7 +660,8 @@ public class BurpExtender implements IBurpExtender, IHttpListener, ITab, IContex
         for (String link : currentSelectedResource.extractedLinks) {
             ExtractedLink el = new ExtractedLink();
             el.url = link;
-            el.type = isApiPath(link) ? "API" : "资源";
+            Set<String> methods = currentSelectedResource.endpointMethods.get(link);
+            el.type = methods != null ? "API " + String.join(",", methods) : isApiPath(link) ? "API" : "资源";
             currentExtractedLinks.add(el);
             previewModel.addRow(new Object[]{false, el.url, el.type});
         }
@@ -322,14 +694,22 @@ public class BurpExtender implements IBurpExtender, IHttpListener, ITab, IContex
         // 设置列宽
         previewTable.getColumnModel().getColumn(0).setPreferredWidth(60);
         previewTable.getColumnModel().getColumn(1).setPreferredWidth(500);
-        previewTable.getColumnModel().getColumn(2).setPreferredWidth(80);
+        previewTable.getColumnModel().getColumn(2).setPreferredWidth(140);
 
         JScrollPane previewScroll = new JScrollPane(previewTable);
         previewScroll.setBorder(BorderFactory.createEmptyBorder());
         previewScroll.getViewport().setBackground(backgroundColor);
 
         // 添加标题信息
-        JLabel titleLabel = new JLabel("资源: " + currentSelectedResource.url);
+        JLabel titleLabel = new JLabel("资源: " + currentSelectedResource.url
+                + "  (已扫描 " + formatSize(currentSelectedResource.scannedBytes)
+                + " / " + formatSize(currentSelectedResource.size) + ")"
+                + (currentSelectedResource.partial ? "  [扫描超时，部分提取]" : ""));
+        PathTemplater.Template template = pathTemplates.get(currentSelectedResource.url);
+        if (template != null && template.instances.get() > 1) {
+            titleLabel.setText(titleLabel.getText() + "  模板: " + template.key + " (" + template.instances.get() + " 个实例)");
+            titleLabel.setToolTipText("<html>实例样本:<br>" + String.join("<br>", template.samples()) + "</html>");
+        }
         titleLabel.setBorder(BorderFactory.createEmptyBorder(10, 15, 10, 15));
         titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
         titleLabel.setForeground(new Color(220, 220, 255));
@@ -387,8 +767,18 @@ public class BurpExtender implements IBurpExtender, IHttpListener, ITab, IContex
         previewDialog.setVisible(true);
     }
 
-    private void crawlSelectedLinks(List<String> urls) {
-        detailArea.setText("开始爬取 " + urls.size() + " 个链接...\n\n");
+    // 每个路径模板只保留第一个链接，保持原有顺序
+    private static List<String> onePerTemplate(List<String> urls) {
+        Map<String, String> byTemplate = new LinkedHashMap<>();
+        for (String url : urls) byTemplate.putIfAbsent(PathTemplater.template(url), url);
+        return new ArrayList<>(byTemplate.values());
+    }
+
+    private void crawlSelectedLinks(List<String> selected) {
+        List<String> urls = settings.templatePaths ? onePerTemplate(selected) : selected;
+        detailArea.setText("开始爬取 " + urls.size() + " 个链接...\n"
+                + (urls.size() < selected.size() ? "按模板合并: " + selected.size() + " → " + urls.size() + "\n" : "")
+                + "\n");
 
         executorService.submit(() -> {
             int total = urls.size();
@@ -411,7 +801,8 @@ public class BurpExtender implements IBurpExtender, IHttpListener, ITab, IContex
                             int statusCode = responseInfo.getStatusCode();
                             String mimeType = responseInfo.getStatedMimeType().toLowerCase();
                             int bodyOffset = responseInfo.getBodyOffset();
-                            String body = new String(responseBytes).substring(bodyOffset);
+                            int bodyLength = responseBytes.length - bodyOffset;
+                            Charset charset = BodyDecoder.charsetOf(responseInfo.getHeaders());
 
                             // 添加到详情区域
                             SwingUtilities.invokeLater(() -> {
@@ -422,8 +813,8 @@ public class BurpExtender implements IBurpExtender, IHttpListener, ITab, IContex
                                                 "【类型】 %s\n" +
                                                 "【大小】 %s\n" +
                                                 "【预览】\n%s\n\n%s\n\n",
-                                        url, statusCode, mimeType, formatSize(body.length()),
-                                        getPreviewContent(body, 300),
+                                        url, statusCode, mimeType, formatSize(bodyLength),
+                                        getPreviewContent(responseBytes, bodyOffset, charset, 300),
                                         separator
                                 );
                                 detailArea.append(result);
@@ -458,18 +849,26 @@ public class BurpExtender implements IBurpExtender, IHttpListener, ITab, IContex
         });
     }
 
-    private String getPreviewContent(String content, int maxLength) {
-        if (content == null || content.isEmpty()) {
+    private String getPreviewContent(byte[] responseBytes, int bodyOffset, Charset charset, int maxLength) {
+        int bodyLength = responseBytes.length - bodyOffset;
+        if (bodyLength <= 0) {
             return "[空内容]";
         }
 
+        // 只解码预览所需的头部字节，避免复制整个响应
+        int headLength = Math.min(bodyLength, maxLength * 4);
+        String content = BodyDecoder.decodeToString(responseBytes, bodyOffset, bodyOffset + headLength, charset);
+
         // 移除过多的空白字符
         content = content.replaceAll("\\s+", " ");
 
-        if (content.length() <= maxLength) {
+        if (content.length() <= maxLength && headLength == bodyLength) {
             return content;
         }
-        return content.substring(0, maxLength) + "... [内容已截断，完整长度: " + content.length() + " 字符]";
+        if (content.length() > maxLength) {
+            content = content.substring(0, maxLength);
+        }
+        return content + "... [内容已截断，完整长度: " + bodyLength + " 字节]";
     }
 
     private boolean isApiPath(String url) {
@@ -503,7 +902,7 @@ public class BurpExtender implements IBurpExtender, IHttpListener, ITab, IContex
         }
     }
 
-    private String formatSize(long bytes) {
+    static String formatSize(long bytes) {
         if (bytes < 1024) return bytes + " B";
         int exp = (int) (Math.log(bytes) / Math.log(1024));
         char pre = "KMGTPE".charAt(exp-1);
@@ -514,39 +913,80 @@ public class BurpExtender implements IBurpExtender, IHttpListener, ITab, IContex
     public void processHttpMessage(int toolFlag, boolean messageIsRequest, IHttpRequestResponse messageInfo) {
         if (messageIsRequest) return;
 
-        URL url = helpers.analyzeRequest(messageInfo).getUrl();
-        String urlStr = url.toString();
-        String domainKey = getBaseDomain(url);
+        // 监听线程中只捕获引用，解析交给工作线程；队列满时由管道决定是否丢弃，丢弃的消息不复制
+        ingestPipeline.submit(messageInfo);
+    }
+
+    private void processResponse(IngestPipeline.Task task) {
+        IRequestInfo requestInfo = helpers.analyzeRequest(task.service, task.request);
+        URL url = requestInfo.getUrl();
+        String rawUrl = url.toString();
+        String urlStr = UrlCanonicalizer.canonicalize(rawUrl, settings.sortQueryParams);
+        String domainKey = UrlCanonicalizer.origin(urlStr);
+
+        // 同一GraphQL端点的每个请求都可能是不同的操作，在URL去重之前记录
+        recordGraphQlRequest(requestInfo, task.request, url, domainKey);
 
         // 获取或创建域名的上下文
         DomainContext context = domainContextMap.computeIfAbsent(domainKey, k -> {
             callbacks.printOutput("创建新域名上下文: " + domainKey);
-            return new DomainContext();
+            return new DomainContext(settings.offHeapUrlSet);
         });
 
-        // 跳过已处理的URL
-        if (context.loadedUrls.contains(urlStr)) return;
-        context.loadedUrls.add(urlStr);
+        // 跳过已处理的URL，并发处理同一URL时只有一个线程认领成功
+        boolean claimed = context.claim(urlStr);
+        UrlCanonicalizer.recordResponse(!urlStr.equals(rawUrl), !claimed && !urlStr.equals(rawUrl));
+        if (!claimed) return;
 
-        byte[] responseBytes = messageInfo.getResponse();
-        if (responseBytes == null || responseBytes.length == 0) return;
+        byte[] responseBytes = task.response;
 
         IResponseInfo responseInfo = helpers.analyzeResponse(responseBytes);
         int statusCode = responseInfo.getStatusCode();
         String mimeType = responseInfo.getStatedMimeType().toLowerCase();
         int bodyOffset = responseInfo.getBodyOffset();
         long responseSize = responseBytes.length;
-        String body = new String(responseBytes).substring(bodyOffset);
 
         // 扩展处理范围：包含所有文本类型资源
         if (isProcessableMimeType(mimeType)) {
+            // 开启模板合并时，同一模板的后续实例只计入样本，不再提取和列出
+            if (settings.templatePaths && !pathTemplates.record(urlStr)) return;
+
+            Charset charset = BodyDecoder.charsetOf(responseInfo.getHeaders());
+
             ResourceEntry entry = new ResourceEntry();
             entry.url = urlStr;
             entry.type = mimeType;
             entry.status = statusCode;
             entry.size = responseSize;
             entry.domain = domainKey;
-            entry.extractedLinks = extractLinksFromBody(body, urlStr, mimeType);
+            entry.tier = settings.sizeTiers.tierFor(mimeType, responseBytes.length - bodyOffset);
+            // 只记录元数据的响应不提取也不保留，不计算内容哈希
+            boolean metadataOnly = entry.tier == SizeTierPolicy.Tier.METADATA_ONLY;
+            if (!metadataOnly) entry.bodyHash = ExtractionCache.hash(responseBytes, bodyOffset, responseBytes.length);
+
+            SizeTierPolicy.MimeClass mimeClass = SizeTierPolicy.classify(mimeType);
+            boolean staticResource = mimeClass == SizeTierPolicy.MimeClass.SCRIPT
+                    || mimeClass == SizeTierPolicy.MimeClass.CSS;
+
+            // 缓存参数或文件名哈希不同、内容相同的版本已处理过，只用于脚本和样式这类静态资源
+            if (settings.collapseCacheBusters && staticResource && !metadataOnly) {
+                context.cacheBusters.observe(urlStr, entry.bodyHash);
+                if (!context.cacheBusters.claim(urlStr, entry.bodyHash, responseBytes.length - bodyOffset)) return;
+            }
+
+            // 第三方库只记录，不提取
+            if (staticResource) {
+                entry.vendor = settings.vendors.match(url, entry.bodyHash, responseBytes.length - bodyOffset);
+            }
+            if (entry.vendor == null && !metadataOnly) {
+                extractLinksFromBody(entry, responseBytes, bodyOffset, charset, true);
+                // 保留压缩后的响应体，规则修改后可以重新提取
+                if (settings.retainBodyMb > 0) {
+                    entry.charset = charset;
+                    entry.body = bodyStore.retain(entry.bodyHash, responseBytes, bodyOffset, responseBytes.length,
+                            settings.retainBodyBytes());
+                }
+            }
 
             // 添加到域名的资源列表
             context.resourceList.add(entry);
@@ -556,7 +996,8 @@ public class BurpExtender implements IBurpExtender, IHttpListener, ITab, IContex
                         resourceTableModel.getRowCount() + 1,
                         entry.domain,
                         entry.url,
-                        entry.type,
+                        entry.type + entry.tier.label + (entry.vendor != null ? " [vendor: " + entry.vendor + "]" : "")
+                                + (entry.partial ? " [部分提取]" : ""),
                         entry.status,
                         entry.size,
                         "查看提取结果"
@@ -565,6 +1006,28 @@ public class BurpExtender implements IBurpExtender, IHttpListener, ITab, IContex
         }
     }
 
+    private void recordGraphQlRequest(IRequestInfo requestInfo, byte[] request, URL url, String domainKey) {
+        String path = url.getPath();
+        if (path == null || !GraphQlExtractor.isEndpoint(path)) return;
+
+        String endpoint = UrlCanonicalizer.canonicalize(getBaseDomain(url) + path, false);
+        graphQlCatalog.addEndpoint(domainKey, endpoint);
+
+        List<GraphQlExtractor.Operation> operations = new ArrayList<>();
+        int bodyOffset = requestInfo.getBodyOffset();
+        if (request != null && bodyOffset < request.length) {
+            GraphQlExtractor.parseRequestBody(new ByteCharSequence(request, bodyOffset, request.length), operations);
+        } else {
+            // GET ?query=...
+            for (IParameter parameter : requestInfo.getParameters()) {
+                if (parameter.getType() == IParameter.PARAM_URL && parameter.getName().equals("query")) {
+                    GraphQlExtractor.parseDocument(helpers.urlDecode(parameter.getValue()), operations);
+                }
+            }
+        }
+        graphQlCatalog.addOperations(domainKey, Collections.singleton(endpoint), operations, "流量");
+    }
+
     private boolean isProcessableMimeType(String mimeType) {
         return mimeType.contains("html") || mimeType.contains("script") ||
                 mimeType.contains("json") || mimeType.contains("text") ||
@@ -589,149 +1052,233 @@ public class BurpExtender implements IBurpExtender, IHttpListener, ITab, IContex
         }
     }
 
-    private List<String> extractLinksFromBody(String body, String baseUrl, String mimeType) {
+    // useCache为false时总是重新扫描，扫描结果仍然更新到缓存
+    private void extractLinksFromBody(ResourceEntry entry, byte[] responseBytes, int bodyOffset, Charset charset,
+                                      boolean useCache) {
         Set<String> uniqueLinks = new HashSet<>();
-
-        // 1. 提取完整URL
-        Pattern fullUrlPattern = Pattern.compile(
-                "https?://[a-zA-Z0-9_\\-.:]+(?:/[a-zA-Z0-9_\\-.:]+)*",
-                Pattern.CASE_INSENSITIVE
-        );
-
-        Matcher fullUrlMatcher = fullUrlPattern.matcher(body);
-        while (fullUrlMatcher.find()) {
-            String url = fullUrlMatcher.group();
-            uniqueLinks.add(url);
-        }
-
-        // 2. 提取相对资源路径
-        Pattern relPattern = Pattern.compile(
-                // 匹配带引号的相对路径
-                "[\"']([a-zA-Z0-9_\\-.:/]+?\\.(?:js|css|html?|json|woff2?|ttf|eot|png|jpg|jpeg|gif|svg|ico|webp))[\"']|" +
-                        // 匹配不带引号的路径（常见于HTML）
-                        "\\s+(src|href|data-src|data-href)\\s*=\\s*([a-zA-Z0-9_\\-.:/]+)",
-                Pattern.CASE_INSENSITIVE
-        );
-
-        Matcher relMatcher = relPattern.matcher(body);
-        while (relMatcher.find()) {
-            String path = null;
-            if (relMatcher.group(1) != null) {
-                path = relMatcher.group(1);
-            } else if (relMatcher.group(3) != null) {
-                path = relMatcher.group(3);
+        String baseUrl = entry.url;
+
+        // 单次遍历提取所有候选链接，相对路径转换为完整URL
+        LinkScanner.CandidateSink sink = (value, absolute) -> {
+            candidateCount.increment();
+            if (!absolute) resolveCount.increment();
+            String fullUrl = absolute ? canonicalize(value) : resolveRelativePath(value, baseUrl);
+            if (fullUrl != null) {
+                uniqueLinks.add(fullUrl);
             }
+        };
 
-            if (path != null) {
-                // 清理路径
-                path = path.replaceAll("['\"]", "").trim();
+        int bodyLength = responseBytes.length - bodyOffset;
+        SizeTierPolicy.MimeClass mimeClass = SizeTierPolicy.classify(entry.type);
 
-                // 转换为完整URL
-                String fullUrl = resolveRelativePath(path, baseUrl);
-                if (fullUrl != null) {
-                    uniqueLinks.add(fullUrl);
-                }
+        // OpenAPI/Swagger文档按结构导入端点，不再逐个匹配
+        if (importOpenApi(entry, responseBytes, bodyOffset, charset)) {
+            for (String endpoint : entry.endpointMethods.keySet()) {
+                candidateCount.increment();
+                uniqueLinks.add(endpoint);
             }
+            entry.scannedBytes = responseBytes.length - bodyOffset;
+            entry.extractedLinks = new ArrayList<>(uniqueLinks);
+            return;
         }
 
-        // 3. 提取API接口路径
-        Pattern apiPattern = Pattern.compile(
-                "[\"'](/[a-zA-Z0-9_\\-.:]+(?:/[a-zA-Z0-9_\\-.:]+)+)[\"']|" +
-                        "[\"']([a-zA-Z0-9_\\-.:]+(?:/[a-zA-Z0-9_\\-.:]+)+)[\"']",
-                Pattern.CASE_INSENSITIVE
-        );
+        // 本次提取固定使用开始时的规则集，规则修改后缓存按新版本重新提取
+        ExtractionRules.RuleSet rules = settings.rules.current();
 
-        Matcher apiMatcher = apiPattern.matcher(body);
-        while (apiMatcher.find()) {
-            // 先检查第一个分组（以/开头的路径）
-            String apiPath = apiMatcher.group(1);
-            if (apiPath == null) {
-                // 检查第二个分组（不以/开头的路径）
-                apiPath = apiMatcher.group(2);
-            }
+        // 相同内容的响应复用缓存的原始候选，只重新解析相对路径
+        String path = getPathFromUrl(entry.url);
+        ExtractionCache.Key cacheKey = null;
+        ExtractionCache.Entry cached = null;
+        if (bodyLength >= ExtractionCache.MIN_BODY_BYTES) {
+            cacheKey = ExtractionCache.keyFor(entry.bodyHash, bodyLength, mimeClass, entry.tier, charset, rules.version, path);
+            if (useCache) cached = extractionCache.get(cacheKey);
+        }
 
-            if (apiPath != null) {
-                // 转换为完整URL
-                String fullUrl = resolveRelativePath(apiPath, baseUrl);
-                if (fullUrl != null) {
-                    uniqueLinks.add(fullUrl);
+        if (cached == null) {
+            GraphQlExtractor graphQl = new GraphQlExtractor();
+            ExtractionCache.Recorder recorder = new ExtractionCache.Recorder();
+            LinkScanner.RangeScanner scanner = scannerFor(entry.type, path, graphQl, rules);
+            ExtractionRules.Combined customRules = rules.forClass(mimeClass);
+            int sampleBytes = settings.sampleWindowBytes();
+            long scannedBytes = 0;
+            boolean partial = false;
+            try {
+                if (entry.tier == SizeTierPolicy.Tier.SAMPLED && bodyLength > sampleBytes * 2) {
+                    // 只扫描头部和尾部，入口代码和webpack运行时通常位于这两处。
+                    // 尾部从任意字节开始，可能落在字符串、模板或注释中间，无法确定词法状态，
+                    // 因此用新的、不依赖上下文的扫描器，不沿用头部的词法器和常量/webpack状态
+                    scannedBytes += scanRange(responseBytes, bodyOffset, bodyOffset + sampleBytes, charset, entry.type, scanner, customRules, recorder);
+                    LinkScanner.RangeScanner tailScanner = withCustomRules(DeadlineCharSequence.guard(
+                            "tail", sampledTailScanner(entry.type), settings.scanBudgetNanos()), mimeClass, rules);
+                    scannedBytes += scanRange(responseBytes, responseBytes.length - sampleBytes, responseBytes.length, charset, entry.type, tailScanner, customRules, recorder);
+                } else {
+                    scannedBytes = scanRange(responseBytes, bodyOffset, responseBytes.length, charset, entry.type, scanner, customRules, recorder);
                 }
+            } catch (DeadlineCharSequence.Exceeded ex) {
+                // 超时前输出的候选仍然有效
+                DeadlineCharSequence.recordAbort(ex.pattern);
+                callbacks.printError("扫描超时 (" + ex.pattern + "): " + entry.url);
+                partial = true;
             }
+            cached = recorder.finish(scannedBytes, graphQl, partial);
+            // 是否超时取决于当时的负载，不完整的结果不缓存，之后相同内容的响应重新扫描
+            if (cacheKey != null && !partial) extractionCache.put(cacheKey, cached);
         }
 
-        // 4. 提取JS动态加载的资源
-        if (mimeType.contains("javascript") || mimeType.contains("html")) {
-            // 匹配动态导入: import('module')
-            Pattern dynamicImportPattern = Pattern.compile(
-                    "import\\(['\"]([a-zA-Z0-9_\\-.:/]+)['\"]\\)",
-                    Pattern.CASE_INSENSITIVE
-            );
+        cached.replay(sink);
+        entry.scannedBytes = cached.scannedBytes;
+        entry.partial = cached.partial;
+        recordGraphQl(entry, cached.graphQl, uniqueLinks);
 
-            Matcher importMatcher = dynamicImportPattern.matcher(body);
-            while (importMatcher.find()) {
-                String path = importMatcher.group(1);
-                String fullUrl = resolveRelativePath(path, baseUrl);
-                if (fullUrl != null) {
-                    uniqueLinks.add(fullUrl);
-                }
-            }
+        entry.extractedLinks = new ArrayList<>(uniqueLinks);
+    }
 
-            // 匹配require调用: require('module')
-            Pattern requirePattern = Pattern.compile(
-                    "require\\(['\"]([a-zA-Z0-9_\\-.:/]+)['\"]\\)",
-                    Pattern.CASE_INSENSITIVE
-            );
+    private boolean importOpenApi(ResourceEntry entry, byte[] responseBytes, int bodyOffset, Charset charset) {
+        int headLength = Math.min(responseBytes.length - bodyOffset, 2048);
+        String head = BodyDecoder.decodeToString(responseBytes, bodyOffset, bodyOffset + headLength, charset);
+        if (!OpenApiImporter.isCandidate(getPathFromUrl(entry.url), entry.type, head)) return false;
 
-            Matcher requireMatcher = requirePattern.matcher(body);
-            while (requireMatcher.find()) {
-                String path = requireMatcher.group(1);
-                String fullUrl = resolveRelativePath(path, baseUrl);
-                if (fullUrl != null) {
-                    uniqueLinks.add(fullUrl);
-                }
-            }
+        CharSequence body = BodyDecoder.decode(responseBytes, bodyOffset, responseBytes.length, charset);
+        Map<String, Set<String>> endpoints;
+        try {
+            endpoints = OpenApiImporter.parse(new DeadlineCharSequence(body, "openapi",
+                    System.nanoTime() + settings.scanBudgetNanos()), entry.url);
+        } catch (DeadlineCharSequence.Exceeded ex) {
+            // 导入超时时按普通JSON/YAML扫描
+            DeadlineCharSequence.recordAbort(ex.pattern);
+            return false;
+        }
+        if (endpoints == null) return false;
+        // 端点与其他提取结果一样规范化，规范化后相同的端点合并方法
+        Map<String, Set<String>> canonical = new LinkedHashMap<>();
+        for (Map.Entry<String, Set<String>> endpoint : endpoints.entrySet()) {
+            canonical.computeIfAbsent(canonicalize(endpoint.getKey()), k -> new TreeSet<>()).addAll(endpoint.getValue());
+        }
+        entry.endpointMethods = canonical;
+        return true;
+    }
 
-            // 匹配fetch/XMLHttpRequest调用
-            Pattern fetchPattern = Pattern.compile(
-                    "(?:fetch|open)\\s*\\(\\s*['\"]([a-zA-Z0-9_\\-.:/]+)['\"]",
-                    Pattern.CASE_INSENSITIVE
-            );
+    private long scanRange(byte[] bytes, int from, int to, Charset charset, String mimeType,
+                           LinkScanner.RangeScanner scanner, ExtractionRules.Combined customRules,
+                           LinkScanner.CandidateSink sink) {
+        // ASCII兼容编码直接在原始字节上扫描，其余编码按声明的charset解码
+        CharSequence body;
+        if (BodyDecoder.canViewBytes(bytes, from, to, charset)) {
+            body = BodyDecoder.view(bytes, from, to, charset);
+        } else if (to - from > settings.streamingThresholdBytes()) {
+            // 需要解码的超大响应分窗口流式扫描，内存占用固定；自定义规则在同样的窗口上执行
+            return StreamingScanner.scan(bytes, from, to, charset, LinkScanner.modeFor(mimeType),
+                    customRules == null ? null : customRules::scan, System.nanoTime() + settings.scanBudgetNanos(), sink);
+        } else {
+            body = BodyDecoder.decodeWithCharset(bytes, from, to, charset);
+        }
 
-            Matcher fetchMatcher = fetchPattern.matcher(body);
-            while (fetchMatcher.find()) {
-                String path = fetchMatcher.group(1);
-                String fullUrl = resolveRelativePath(path, baseUrl);
-                if (fullUrl != null) {
-                    uniqueLinks.add(fullUrl);
-                }
-            }
+        scanner.scan(body, 0, body.length(), sink);
+        return to - from;
+    }
+
+    // JS中发现的GraphQL端点按资源地址解析，端点本身也作为提取结果
+    private void recordGraphQl(ResourceEntry entry, GraphQlExtractor graphQl, Set<String> uniqueLinks) {
+        Set<String> endpoints = new LinkedHashSet<>();
+        for (String raw : graphQl.endpoints) {
+            String endpoint = resolveRelativePath(raw, entry.url);
+            if (endpoint == null) continue;
+            int query = endpoint.indexOf('?');
+            endpoint = query >= 0 ? endpoint.substring(0, query) : endpoint;
+            endpoints.add(endpoint);
+            uniqueLinks.add(endpoint);
+            graphQlCatalog.addEndpoint(entry.domain, endpoint);
+        }
+        graphQlCatalog.addOperations(entry.domain, endpoints, graphQl.operations, entry.url);
+    }
+
+    private LinkScanner.RangeScanner scannerFor(String mimeType, String path, GraphQlExtractor graphQl,
+                                                ExtractionRules.RuleSet rules) {
+        LinkScanner.RangeScanner scanner;
+        // JS只检查字符串和模板字面量，跳过注释、正则和代码
+        SizeTierPolicy.MimeClass mimeClass = SizeTierPolicy.classify(mimeType);
+        if (mimeClass == SizeTierPolicy.MimeClass.SCRIPT) {
+            int parallelChars = settings.parallelScanChars();
+            scanner = (text, from, to, sink) -> to - from >= parallelChars
+                    ? ParallelJsScanner.scanLinks(text, from, to, sink, graphQl)
+                    : JsLexer.scanLinks(text, from, to, sink, graphQl);
+        } else if (mimeClass == SizeTierPolicy.MimeClass.HTML) {
+            // HTML按标签和属性分词，内联脚本交给JS词法扫描
+            scanner = HtmlTokenizer::scanLinks;
+        } else if (mimeClass == SizeTierPolicy.MimeClass.JSON) {
+            // JSON只遍历字符串值，链接键下的值保留查询参数
+            scanner = JsonScanner::scanLinks;
+        } else {
+            scanner = LinkScanner.forMode(LinkScanner.modeFor(mimeType));
         }
 
-        // 5. 提取CSS中的资源
-        if (mimeType.contains("css")) {
-            Pattern cssUrlPattern = Pattern.compile(
-                    "url\\(\\s*['\"]?([a-zA-Z0-9_\\-.:/]+)['\"]?\\s*\\)",
-                    Pattern.CASE_INSENSITIVE
-            );
+        // Next/Nuxt/Vite 的构建清单直接列出全部页面和chunk
+        LinkScanner.RangeScanner manifest = ManifestExtractor.scannerFor(path, scanner);
+        // 每次扫描都受时间预算限制，超时计入对应扫描器
+        LinkScanner.RangeScanner builtin = manifest != null
+                ? DeadlineCharSequence.guard("manifest", manifest, settings.scanBudgetNanos())
+                : DeadlineCharSequence.guard(mimeClass.name().toLowerCase(Locale.ROOT), scanner, settings.scanBudgetNanos());
+        return withCustomRules(builtin, mimeClass, rules);
+    }
 
-            Matcher cssMatcher = cssUrlPattern.matcher(body);
-            while (cssMatcher.find()) {
-                String path = cssMatcher.group(1);
-                String fullUrl = resolveRelativePath(path, baseUrl);
-                if (fullUrl != null) {
-                    uniqueLinks.add(fullUrl);
+    // 采样尾部使用的扫描器：逐字符匹配引号内路径、完整URL、属性和url()，不需要知道起点处的词法状态
+    static LinkScanner.RangeScanner sampledTailScanner(String mimeType) {
+        return LinkScanner.forMode(LinkScanner.modeFor(mimeType));
+    }
+
+    // 适用于该类别的自定义规则合并为一个正则，在内置扫描之后对同一段内容执行一遍
+    private LinkScanner.RangeScanner withCustomRules(LinkScanner.RangeScanner builtin, SizeTierPolicy.MimeClass mimeClass,
+                                                     ExtractionRules.RuleSet rules) {
+        ExtractionRules.Combined combined = rules.forClass(mimeClass);
+        if (combined == null) return builtin;
+        LinkScanner.RangeScanner custom = DeadlineCharSequence.guard(
+                "rules:" + mimeClass.name().toLowerCase(Locale.ROOT), combined::scan, settings.scanBudgetNanos());
+        return (text, from, to, sink) -> {
+            int stop;
+            try {
+                stop = builtin.scan(text, from, to, sink);
+            } catch (DeadlineCharSequence.Exceeded ex) {
+                // 内置扫描超时不影响自定义规则，规则有自己的时间预算
+                try {
+                    custom.scan(text, from, to, sink);
+                } catch (DeadlineCharSequence.Exceeded rulesEx) {
+                    DeadlineCharSequence.recordAbort(rulesEx.pattern);
                 }
+                throw ex;
             }
-        }
+            custom.scan(text, from, to, sink);
+            return stop;
+        };
+    }
 
-        return new ArrayList<>(uniqueLinks);
+    private String canonicalize(String url) {
+        String canonical = UrlCanonicalizer.canonicalize(url, settings.sortQueryParams);
+        UrlCanonicalizer.recordLink(!canonical.equals(url));
+        return canonical;
     }
 
+    // 结果统一规范化，同一地址的不同写法只保留一个
     private String resolveRelativePath(String path, String baseUrl) {
+        String resolved = resolveUrl(path, baseUrl);
+        return resolved == null ? null : canonicalize(resolved);
+    }
+
+    // 去掉所有引号；候选通常不含引号，此时直接返回原字符串
+    private static String stripQuotes(String path) {
+        if (path.indexOf('"') < 0 && path.indexOf('\'') < 0) return path;
+        StringBuilder sb = new StringBuilder(path.length());
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c != '"' && c != '\'') sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private String resolveUrl(String path, String baseUrl) {
         if (path == null || path.isEmpty()) return null;
 
         // 清理路径
-        path = path.trim().replaceAll("['\"]", "");
+        path = stripQuotes(path.trim());
 
         // 跳过数据URL和特殊协议
         if (path.startsWith("data:") || path.startsWith("javascript:") || path.startsWith("mailto:")) {
@@ -814,6 +1361,15 @@ public class BurpExtender implements IBurpExtender, IHttpListener, ITab, IContex
         }
     }
 
+    @Override
+    public void extensionUnloaded() {
+        if (ingestPipeline != null) {
+            ingestPipeline.shutdown();
+        }
+        executorService.shutdownNow();
+        ParallelJsScanner.shutdown();
+    }
+
     @Override
     public String getTabCaption() {
         return "APIFuzz";
@@ -850,8 +1406,26 @@ public class BurpExtender implements IBurpExtender, IHttpListener, ITab, IContex
                 callbacks.printOutput("已复制URL: " + url);
             });
 
+            JMenuItem markVendorItem = new JMenuItem("标记为第三方库");
+            markVendorItem.addActionListener(e -> {
+                // 按内容哈希标记，之后相同内容的资源不再提取
+                int marked = 0;
+                for (int row : selectedRows) {
+                    int modelRow = resourceTable.convertRowIndexToModel(row);
+                    ResourceEntry entry = findEntry((String) resourceTableModel.getValueAt(modelRow, 1),
+                            (String) resourceTableModel.getValueAt(modelRow, 2));
+                    if (entry != null && entry.size > 0 && entry.tier != SizeTierPolicy.Tier.METADATA_ONLY) {
+                        settings.vendors.addHash(entry.bodyHash);
+                        marked++;
+                    }
+                }
+                settings.save(callbacks);
+                callbacks.printOutput("已标记为第三方库: " + marked + " 个资源");
+            });
+
             menuItems.add(viewExtractItem);
             menuItems.add(copyUrlItem);
+            menuItems.add(markVendorItem);
         }
 
         return menuItems;
@@ -914,6 +1488,18 @@ public class BurpExtender implements IBurpExtender, IHttpListener, ITab, IContex
         int status;
         long size;
         List<String> extractedLinks = new ArrayList<>();
+        long scannedBytes;
+        SizeTierPolicy.Tier tier = SizeTierPolicy.Tier.FULL;
+        // OpenAPI文档导入的端点及其方法
+        Map<String, Set<String>> endpointMethods = Collections.emptyMap();
+        long bodyHash;
+        // 命中的第三方库，未提取
+        String vendor;
+        // 扫描超时，只保留了部分结果
+        boolean partial;
+        // 保留的响应体，未保留时为null
+        BodyStore.Body body;
+        Charset charset;
     }
 
     static class ExtractedLink {
@@ -921,8 +1507,20 @@ public class BurpExtender implements IBurpExtender, IHttpListener, ITab, IContex
         String type;
     }
 
+    // 资源列表为无锁队列，遍历为弱一致性；已处理的URL和资源版本只保存64位指纹
     static class DomainContext {
-        final Set<String> loadedUrls = Collections.synchronizedSet(new HashSet<>());
-        final List<ResourceEntry> resourceList = Collections.synchronizedList(new ArrayList<>());
+        final UrlFingerprintSet loadedUrls;
+        final Queue<ResourceEntry> resourceList = new ConcurrentLinkedQueue<>();
+        final CacheBusterDetector cacheBusters;
+
+        DomainContext(boolean offHeap) {
+            this.loadedUrls = new UrlFingerprintSet(offHeap);
+            this.cacheBusters = new CacheBusterDetector(offHeap);
+        }
+
+        // 原子地认领URL，已被认领时返回false
+        boolean claim(String url) {
+            return loadedUrls.add(url);
+        }
     }
 }
\ No newline at end of file
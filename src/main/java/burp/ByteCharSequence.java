@@ -0,0 +1,53 @@
+package burp;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+// 直接基于响应byte[]的只读字符视图，每个字节按Latin-1映射为一个字符，不做整体解码和复制。
+// 扫描器只关心ASCII结构字符，UTF-8多字节序列的每个字节都不小于0x80，不会被误识别。
+// 匹配到的片段转成字符串时按响应的charset解码，含非ASCII字节的 /搜索/列表 不会变成乱码
+final class ByteCharSequence implements CharSequence {
+    private final byte[] bytes;
+    private final int offset;
+    private final int length;
+    private final Charset charset;
+
+    // 未声明charset时按UTF-8解码片段
+    ByteCharSequence(byte[] bytes, int start, int end) {
+        this(bytes, start, end, null);
+    }
+
+    ByteCharSequence(byte[] bytes, int start, int end, Charset charset) {
+        if (start < 0 || end > bytes.length || start > end) {
+            throw new IndexOutOfBoundsException("start=" + start + ", end=" + end + ", length=" + bytes.length);
+        }
+        this.bytes = bytes;
+        this.offset = start;
+        this.length = end - start;
+        this.charset = charset != null ? charset : StandardCharsets.UTF_8;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (bytes[offset + index] & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new ByteCharSequence(bytes, offset + start, offset + end, charset);
+    }
+
+    // 只解码被匹配到的片段，纯ASCII的片段不经过charset解码器
+    @Override
+    public String toString() {
+        for (int i = offset; i < offset + length; i++) {
+            if (bytes[i] < 0) return new String(bytes, offset, length, charset);
+        }
+        return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,163 @@
+package burp;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 版本化资源的去重：app.js?v=1699999、main.js?_=时间戳、chunk.abc123.js 这类URL
+// 去掉缓存参数和文件名中的哈希段后，与响应体哈希一起判重，内容相同的新版本不再提取。
+// 缓存参数除内置名称外按主机学习：同一资源只有某个参数的值不同而内容相同时，该参数记为缓存参数。
+// 内容不同的版本哈希不同，不会被合并，因此去掉的部分即使不是缓存参数也不会漏掉结果
+final class CacheBusterDetector {
+
+    private static final Set<String> BUILTIN_PARAMS = new HashSet<>(Arrays.asList(
+            "v", "ver", "version", "_", "_v", "t", "_t", "ts", "timestamp", "cb", "cachebust", "cachebuster",
+            "bust", "nocache", "rev", "build", "hash", "_dc"));
+    // 每个主机最多观察的 资源+参数 组合数
+    private static final int MAX_OBSERVED = 4096;
+
+    // 计数随所属域名一起清除
+    private final AtomicLong checked = new AtomicLong();
+    private final AtomicLong stripped = new AtomicLong();
+    private final AtomicLong collapsed = new AtomicLong();
+    private final AtomicLong collapsedBytes = new AtomicLong();
+    private final AtomicLong learned = new AtomicLong();
+
+    private final Set<String> learnedParams = ConcurrentHashMap.newKeySet();
+    // 去掉某个参数后的URL + 参数名 -> {参数值指纹, 响应体哈希}
+    private final Map<String, long[]> observed = new ConcurrentHashMap<>();
+    private final UrlFingerprintSet versions;
+
+    CacheBusterDetector(boolean offHeap) {
+        this.versions = new UrlFingerprintSet(offHeap);
+    }
+
+    // 记录URL的每个查询参数，参数值不同而内容相同时学习为缓存参数。
+    // 观察表满后不再观察，已学习到的参数继续生效
+    void observe(String url, long bodyHash) {
+        if (observed.size() >= MAX_OBSERVED) return;
+        int query = url.indexOf('?');
+        if (query < 0) return;
+        String[] params = url.substring(query + 1).split("&", -1);
+        for (int i = 0; i < params.length; i++) {
+            String name = paramName(params[i]);
+            if (isCacheBuster(name)) continue;
+
+            StringBuilder key = new StringBuilder(url.length()).append(url, 0, query);
+            char separator = '?';
+            for (int j = 0; j < params.length; j++) {
+                if (j == i) continue;
+                key.append(separator).append(params[j]);
+                separator = '&';
+            }
+            key.append('\0').append(name);
+
+            long value = UrlFingerprintSet.fingerprint(params[i]);
+            long[] previous = observed.get(key.toString());
+            if (previous == null) {
+                observed.putIfAbsent(key.toString(), new long[]{value, bodyHash});
+            } else if (previous[0] != value && previous[1] == bodyHash
+                    && learnedParams.add(name.toLowerCase(Locale.ROOT))) {
+                learned.incrementAndGet();
+            }
+        }
+    }
+
+    // 按 去掉缓存部分的URL + 响应体哈希 认领，相同内容的其他版本已认领时返回false。
+    // 没有可去掉部分的URL直接放行，不占用版本表
+    boolean claim(String url, long bodyHash, long bodyLength) {
+        checked.incrementAndGet();
+        String key = strip(url);
+        if (key.equals(url)) return true;
+        stripped.incrementAndGet();
+        if (versions.add(UrlFingerprintSet.fingerprint(key) ^ bodyHash)) return true;
+        collapsed.incrementAndGet();
+        collapsedBytes.addAndGet(bodyLength);
+        return false;
+    }
+
+    // 去掉缓存参数和最后一段文件名中的哈希
+    String strip(String url) {
+        int query = url.indexOf('?');
+        String path = query >= 0 ? url.substring(0, query) : url;
+        int slash = path.lastIndexOf('/');
+        StringBuilder sb = new StringBuilder(url.length());
+        sb.append(path, 0, slash + 1).append(stripHashedName(path.substring(slash + 1)));
+        if (query >= 0) {
+            char separator = '?';
+            for (String param : url.substring(query + 1).split("&", -1)) {
+                if (isCacheBuster(paramName(param))) continue;
+                sb.append(separator).append(param);
+                separator = '&';
+            }
+        }
+        return sb.toString();
+    }
+
+    private boolean isCacheBuster(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        return BUILTIN_PARAMS.contains(lower) || learnedParams.contains(lower);
+    }
+
+    // name.hash.ext、name.hash.chunk.ext 去掉中间的哈希段，name-hash.ext 去掉后缀
+    static String stripHashedName(String name) {
+        String[] parts = name.split("\\.", -1);
+        if (parts.length < 2) return name;
+        StringBuilder sb = new StringBuilder(name.length()).append(parts[0]);
+        for (int i = 1; i < parts.length; i++) {
+            if (i < parts.length - 1 && isHash(parts[i], 6)) continue;
+            sb.append('.').append(parts[i]);
+        }
+        int dash = sb.lastIndexOf("-", sb.indexOf("."));
+        if (dash > 0 && isHash(sb.substring(dash + 1, sb.indexOf(".")), 8)) sb.delete(dash, sb.indexOf("."));
+        return sb.toString();
+    }
+
+    // 包含数字的字母数字串，或较长的纯数字（时间戳）
+    private static boolean isHash(String s, int minLength) {
+        if (s.length() < minLength) return false;
+        boolean digit = false;
+        boolean letter = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digit = true;
+            } else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_') {
+                letter = true;
+            } else {
+                return false;
+            }
+        }
+        return digit && (letter || s.length() >= 8);
+    }
+
+    private static String paramName(String param) {
+        int eq = param.indexOf('=');
+        return eq >= 0 ? param.substring(0, eq) : param;
+    }
+
+    // 汇总当前各域名的检测器
+    static String getStatistics(Collection<CacheBusterDetector> detectors) {
+        long checkedCount = 0;
+        long strippedCount = 0;
+        long collapsedCount = 0;
+        long skippedBytes = 0;
+        long learnedCount = 0;
+        for (CacheBusterDetector detector : detectors) {
+            checkedCount += detector.checked.get();
+            strippedCount += detector.stripped.get();
+            collapsedCount += detector.collapsed.get();
+            skippedBytes += detector.collapsedBytes.get();
+            learnedCount += detector.learned.get();
+        }
+        return String.format("【缓存参数】 检查: %d, 含缓存参数或哈希文件名: %d, 内容相同合并: %d (%.1f%%), 跳过: %s, 学习到的参数: %d\n",
+                checkedCount, strippedCount, collapsedCount,
+                checkedCount == 0 ? 0.0 : collapsedCount * 100.0 / checkedCount,
+                BurpExtender.formatSize(skippedBytes), learnedCount);
+    }
+}
@@ -0,0 +1,98 @@
+package burp;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 带时间预算的CharSequence：扫描器和正则都通过charAt读取内容，每读取CHECK_INTERVAL个字符检查一次截止时间，
+// 超时抛出Exceeded终止当前扫描。已经输出的候选保留，资源标记为部分提取
+final class DeadlineCharSequence implements CharSequence {
+
+    private static final int CHECK_INTERVAL = 4096;
+
+    // 按扫描器/规则名统计的超时次数
+    private static final Map<String, AtomicLong> abortsByPattern = new ConcurrentHashMap<>();
+
+    static final class Exceeded extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final String pattern;
+
+        Exceeded(String pattern) {
+            super("扫描超时: " + pattern);
+            this.pattern = pattern;
+        }
+
+        // 用于控制流程，不需要堆栈
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    private final CharSequence text;
+    private final String pattern;
+    private final long deadlineNanos;
+    private int steps = CHECK_INTERVAL;
+
+    DeadlineCharSequence(CharSequence text, String pattern, long deadlineNanos) {
+        this.text = text;
+        this.pattern = pattern;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    // 每次扫描都从调用时开始计算预算
+    static LinkScanner.RangeScanner guard(String pattern, LinkScanner.RangeScanner scanner, long budgetNanos) {
+        return (text, from, to, sink) -> scanner.scan(
+                new DeadlineCharSequence(text, pattern, System.nanoTime() + budgetNanos), from, to, sink);
+    }
+
+    // 多个线程同时读取同一内容时各自使用独立的计数，截止时间不变
+    static CharSequence fork(CharSequence text) {
+        if (!(text instanceof DeadlineCharSequence)) return text;
+        DeadlineCharSequence guarded = (DeadlineCharSequence) text;
+        return new DeadlineCharSequence(guarded.text, guarded.pattern, guarded.deadlineNanos);
+    }
+
+    static void check(String pattern, long deadlineNanos) {
+        if (System.nanoTime() - deadlineNanos > 0) throw new Exceeded(pattern);
+    }
+
+    static void recordAbort(String pattern) {
+        abortsByPattern.computeIfAbsent(pattern, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    @Override
+    public int length() {
+        return text.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (--steps <= 0) {
+            steps = CHECK_INTERVAL;
+            check(pattern, deadlineNanos);
+        }
+        return text.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new DeadlineCharSequence(text.subSequence(start, end), pattern, deadlineNanos);
+    }
+
+    @Override
+    public String toString() {
+        return text.toString();
+    }
+
+    static String getStatistics() {
+        if (abortsByPattern.isEmpty()) return "【扫描超时】 无\n";
+        StringBuilder sb = new StringBuilder("【扫描超时】");
+        for (Map.Entry<String, AtomicLong> entry : new TreeMap<>(abortsByPattern).entrySet()) {
+            sb.append(' ').append(entry.getKey()).append(": ").append(entry.getValue().get());
+        }
+        return sb.append('\n').toString();
+    }
+}
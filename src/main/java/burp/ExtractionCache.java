@@ -0,0 +1,200 @@
+package burp;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 按响应内容缓存提取结果：同一个vendor/runtime包在多个站点和CDN上重复出现时只扫描一次。
+// 缓存的是未解析的原始候选，命中后只需重新执行相对路径解析。
+// 键为 内容哈希 + 长度 + MIME类别 + 分级 + 字符集 + 自定义规则版本 + 扫描器。
+// 扫描器由MIME类别和文件名决定：构建清单的提取结果与所在路径有关，按完整路径（不含主机）区分，
+// 其余扫描器的原始候选与URL无关，不同路径、不同主机上的相同内容都可复用
+final class ExtractionCache {
+
+    private static final int MAX_ENTRIES = 4096;
+    private static final long MAX_CANDIDATES = 2_000_000;
+    // 太小的响应扫描比查缓存更便宜
+    static final int MIN_BODY_BYTES = 1024;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME = THREADS.isCurrentThreadCpuTimeSupported();
+
+    static final class Key {
+        final long hash;
+        final int length;
+        final String mimeClass;
+        final String tier;
+        // 同样的字节按GBK和UTF-8解码得到的候选不同
+        final String charset;
+        final int rulesVersion;
+        // 构建清单为 清单类型:路径，其余为空
+        final String scanner;
+
+        Key(long hash, int length, String mimeClass, String tier, String charset, int rulesVersion, String scanner) {
+            this.hash = hash;
+            this.length = length;
+            this.mimeClass = mimeClass;
+            this.tier = tier;
+            this.charset = charset;
+            this.rulesVersion = rulesVersion;
+            this.scanner = scanner;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return hash == other.hash && length == other.length && mimeClass.equals(other.mimeClass)
+                    && tier.equals(other.tier) && charset.equals(other.charset) && rulesVersion == other.rulesVersion
+                    && scanner.equals(other.scanner);
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (hash ^ (hash >>> 32)) * 31 + scanner.hashCode();
+        }
+    }
+
+    // 一次提取的原始结果
+    static final class Entry {
+        final String[] values;
+        final boolean[] absolute;
+        final long scannedBytes;
+        final GraphQlExtractor graphQl;
+        final long costNanos;
+        // 扫描超时，结果不完整
+        final boolean partial;
+
+        Entry(List<String> values, List<Boolean> absolute, long scannedBytes, GraphQlExtractor graphQl, long costNanos,
+              boolean partial) {
+            this.values = values.toArray(new String[0]);
+            this.absolute = new boolean[absolute.size()];
+            for (int i = 0; i < this.absolute.length; i++) this.absolute[i] = absolute.get(i);
+            this.scannedBytes = scannedBytes;
+            this.graphQl = graphQl;
+            this.costNanos = costNanos;
+            this.partial = partial;
+        }
+
+        void replay(LinkScanner.CandidateSink sink) {
+            for (int i = 0; i < values.length; i++) {
+                sink.accept(values[i], absolute[i]);
+            }
+        }
+    }
+
+    // 提取过程中只记录候选，结束后生成缓存项再统一回放，耗时只包含扫描本身
+    static final class Recorder implements LinkScanner.CandidateSink {
+        private final List<String> values = new ArrayList<>();
+        private final List<Boolean> absolute = new ArrayList<>();
+        private final long startCpu = now();
+
+        @Override
+        public void accept(String value, boolean isAbsolute) {
+            values.add(value);
+            absolute.add(isAbsolute);
+        }
+
+        Entry finish(long scannedBytes, GraphQlExtractor graphQl, boolean partial) {
+            return new Entry(values, absolute, scannedBytes, graphQl, now() - startCpu, partial);
+        }
+    }
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalCandidates;
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong savedNanos = new AtomicLong();
+    private final AtomicLong savedBytes = new AtomicLong();
+
+    static Key keyFor(long bodyHash, int bodyLength, SizeTierPolicy.MimeClass mimeClass, SizeTierPolicy.Tier tier,
+                      Charset charset, int rulesVersion, String path) {
+        ManifestExtractor.Kind manifest = ManifestExtractor.kindFor(path);
+        String scanner = manifest == null ? "" : manifest.name() + ":" + path;
+        // 未声明charset时按UTF-8处理，与声明为UTF-8的共用缓存项
+        String charsetName = (charset != null ? charset : StandardCharsets.UTF_8).name();
+        return new Key(bodyHash, bodyLength, mimeClass.name(), tier.name(), charsetName, rulesVersion, scanner);
+    }
+
+    Entry get(Key key) {
+        lookups.incrementAndGet();
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        if (entry != null) {
+            hits.incrementAndGet();
+            savedNanos.addAndGet(entry.costNanos);
+            savedBytes.addAndGet(entry.scannedBytes);
+        }
+        return entry;
+    }
+
+    synchronized void put(Key key, Entry entry) {
+        Entry previous = entries.put(key, entry);
+        if (previous != null) totalCandidates -= previous.values.length;
+        totalCandidates += entry.values.length;
+
+        Iterator<Entry> eldest = entries.values().iterator();
+        while ((entries.size() > MAX_ENTRIES || totalCandidates > MAX_CANDIDATES) && eldest.hasNext()) {
+            totalCandidates -= eldest.next().values.length;
+            eldest.remove();
+        }
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        totalCandidates = 0;
+    }
+
+    // 每次处理8字节的64位哈希，配合长度比较，不同内容碰撞的概率可以忽略
+    static long hash(byte[] bytes, int from, int to) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        long h = 0x9E3779B97F4A7C15L ^ (to - from);
+        int p = from;
+        for (; p + 8 <= to; p += 8) {
+            h = Long.rotateLeft(h ^ mix(buffer.getLong(p)), 27) * 0x9E3779B97F4A7C15L + 0x52DCE729L;
+        }
+        long tail = 0;
+        for (int shift = 0; p < to; p++, shift += 8) {
+            tail |= (bytes[p] & 0xFFL) << shift;
+        }
+        h ^= mix(tail);
+        return mix(h);
+    }
+
+    private static long mix(long k) {
+        k ^= k >>> 33;
+        k *= 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        k *= 0xC4CEB9FE1A85EC53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    private static long now() {
+        return CPU_TIME ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    String getStatistics() {
+        long lookupCount = lookups.get();
+        long hitCount = hits.get();
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        return String.format("【提取缓存】 查询: %d, 命中: %d (%.1f%%), 缓存项: %d, 节省%s: %.1f ms, 跳过扫描: %s\n",
+                lookupCount, hitCount, lookupCount == 0 ? 0.0 : hitCount * 100.0 / lookupCount, size,
+                CPU_TIME ? "CPU时间" : "耗时", savedNanos.get() / 1_000_000.0, BurpExtender.formatSize(savedBytes.get()));
+    }
+}
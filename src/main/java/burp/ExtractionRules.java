@@ -0,0 +1,218 @@
+package burp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+// 用户自定义提取规则，每行一条：名称 | MIME类别(逗号分隔, *为全部) | 正则
+// 规则有捕获组时取第一个捕获组，否则取整个匹配。
+// 同一MIME类别的规则编译成一个合并的交替正则，用来快速定位有规则能匹配的位置，
+// 每条规则在这些位置上单独匹配，结果与逐条执行规则相同（一条规则的匹配不会挡住与其重叠的其他规则）；
+// 规则集不可变，修改时整体替换，正在进行的提取继续使用开始时取得的规则集
+final class ExtractionRules {
+    private static final String KEY_RULES = "extraction_rules";
+    // 编号反向引用在合并后组号会偏移
+    private static final Pattern NUMBERED_BACKREFERENCE = Pattern.compile("(?<!\\\\)(?:\\\\\\\\)*\\\\[1-9]");
+
+    static final class Rule {
+        final String name;
+        final Set<SizeTierPolicy.MimeClass> mimeClasses;
+        final String regex;
+        final Pattern pattern;
+        final int groupCount;
+        final AtomicLong hits = new AtomicLong();
+
+        Rule(String name, Set<SizeTierPolicy.MimeClass> mimeClasses, String regex, Pattern pattern) {
+            this.name = name;
+            this.mimeClasses = mimeClasses;
+            this.regex = regex;
+            this.pattern = pattern;
+            this.groupCount = pattern.matcher("").groupCount();
+        }
+    }
+
+    // 一个MIME类别的合并正则，只用于定位，提取结果来自各规则自己的正则
+    static final class Combined {
+        final Pattern pattern;
+        final Rule[] rules;
+
+        Combined(Pattern pattern, Rule[] rules) {
+            this.pattern = pattern;
+            this.rules = rules;
+        }
+
+        // 匹配起点位于[from, to)内，匹配本身可以越过to，返回最后一个匹配的结束位置（至少为to）
+        int scan(CharSequence text, int from, int to, LinkScanner.CandidateSink sink) {
+            int length = text.length();
+            to = Math.min(to, length);
+            Matcher matcher = pattern.matcher(text);
+            Matcher[] single = new Matcher[rules.length];
+            // 每条规则下一次匹配的最小起点，与单独执行该规则时一样跳过已匹配的内容
+            int[] resume = new int[rules.length];
+            Arrays.fill(resume, from);
+            int stop = to;
+            int p = from;
+            while (p < to && matcher.find(p)) {
+                int start = matcher.start();
+                if (start >= to) break;
+                int next = Integer.MAX_VALUE;
+                for (int i = 0; i < rules.length; i++) {
+                    if (start >= resume[i]) {
+                        if (single[i] == null) {
+                            single[i] = rules[i].pattern.matcher(text).useTransparentBounds(true).useAnchoringBounds(false);
+                        }
+                        Matcher m = single[i].region(start, length);
+                        if (m.lookingAt()) {
+                            int group = rules[i].groupCount > 0 && m.start(1) >= 0 ? 1 : 0;
+                            String value = m.group(group).trim();
+                            if (!value.isEmpty()) {
+                                rules[i].hits.incrementAndGet();
+                                sink.accept(value, value.startsWith("http://") || value.startsWith("https://"));
+                            }
+                            resume[i] = Math.max(m.end(), start + 1);
+                            stop = Math.max(stop, m.end());
+                        }
+                    }
+                    next = Math.min(next, resume[i]);
+                }
+                // 所有规则都还在各自上一个匹配内部的位置不用再查找
+                p = Math.max(start + 1, next);
+            }
+            return stop;
+        }
+    }
+
+    static final class RuleSet {
+        final int version;
+        final List<Rule> rules;
+        final String text;
+        private final Map<SizeTierPolicy.MimeClass, Combined> byClass;
+
+        RuleSet(int version, List<Rule> rules, String text, Map<SizeTierPolicy.MimeClass, Combined> byClass) {
+            this.version = version;
+            this.rules = rules;
+            this.text = text;
+            this.byClass = byClass;
+        }
+
+        // 该类别没有规则时返回null
+        Combined forClass(SizeTierPolicy.MimeClass mimeClass) {
+            return byClass.get(mimeClass);
+        }
+    }
+
+    private final AtomicReference<RuleSet> current = new AtomicReference<>(
+            new RuleSet(0, Collections.emptyList(), "", Collections.emptyMap()));
+
+    void load(IBurpExtenderCallbacks callbacks) {
+        String saved = callbacks.loadExtensionSetting(KEY_RULES);
+        if (saved == null) return;
+        try {
+            update(saved);
+        } catch (IllegalArgumentException ex) {
+            callbacks.printError("无效的自定义规则: " + ex.getMessage());
+        }
+    }
+
+    void save(IBurpExtenderCallbacks callbacks) {
+        callbacks.saveExtensionSetting(KEY_RULES, current.get().text);
+    }
+
+    RuleSet current() {
+        return current.get();
+    }
+
+    // 全部规则编译成功后才替换，失败时抛出IllegalArgumentException（包括PatternSyntaxException）
+    void update(String text) {
+        List<Rule> rules = new ArrayList<>();
+        String[] lines = text.split("\n");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            rules.add(parseRule(line, i + 1));
+        }
+
+        Map<SizeTierPolicy.MimeClass, Combined> byClass = new EnumMap<>(SizeTierPolicy.MimeClass.class);
+        for (SizeTierPolicy.MimeClass mimeClass : SizeTierPolicy.MimeClass.values()) {
+            List<Rule> applicable = new ArrayList<>();
+            for (Rule rule : rules) {
+                if (rule.mimeClasses.contains(mimeClass)) applicable.add(rule);
+            }
+            if (!applicable.isEmpty()) byClass.put(mimeClass, combine(applicable));
+        }
+
+        RuleSet previous;
+        do {
+            previous = current.get();
+        } while (!current.compareAndSet(previous,
+                new RuleSet(previous.version + 1, rules, text.trim(), byClass)));
+    }
+
+    private static Rule parseRule(String line, int lineNumber) {
+        String[] parts = line.split("\\|", 3);
+        if (parts.length < 3 || parts[0].trim().isEmpty() || parts[2].trim().isEmpty()) {
+            throw new IllegalArgumentException("第" + lineNumber + "行格式应为 名称 | 类别 | 正则");
+        }
+        Set<SizeTierPolicy.MimeClass> mimeClasses = EnumSet.noneOf(SizeTierPolicy.MimeClass.class);
+        for (String name : parts[1].split(",")) {
+            String trimmed = name.trim().toUpperCase(Locale.ROOT);
+            if (trimmed.equals("*")) {
+                mimeClasses.addAll(EnumSet.allOf(SizeTierPolicy.MimeClass.class));
+            } else if (!trimmed.isEmpty()) {
+                try {
+                    mimeClasses.add(SizeTierPolicy.MimeClass.valueOf(trimmed));
+                } catch (IllegalArgumentException ex) {
+                    throw new IllegalArgumentException("第" + lineNumber + "行未知的类别: " + name.trim());
+                }
+            }
+        }
+        if (mimeClasses.isEmpty()) throw new IllegalArgumentException("第" + lineNumber + "行未指定类别");
+
+        String regex = parts[2].trim();
+        Pattern pattern;
+        try {
+            pattern = Pattern.compile(regex);
+        } catch (PatternSyntaxException ex) {
+            throw new IllegalArgumentException("第" + lineNumber + "行正则无效: " + ex.getDescription());
+        }
+        if (NUMBERED_BACKREFERENCE.matcher(regex).find()) {
+            throw new IllegalArgumentException("第" + lineNumber + "行不支持编号反向引用，请使用命名组 \\k<name>");
+        }
+        return new Rule(parts[0].trim(), mimeClasses, regex, pattern);
+    }
+
+    private static Combined combine(List<Rule> rules) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < rules.size(); i++) {
+            if (i > 0) sb.append('|');
+            sb.append("(?:").append(rules.get(i).regex).append(')');
+        }
+        try {
+            return new Combined(Pattern.compile(sb.toString()), rules.toArray(new Rule[0]));
+        } catch (PatternSyntaxException ex) {
+            // 单独编译都成功，合并失败通常是不同规则使用了同名的命名组
+            throw new IllegalArgumentException("规则合并失败: " + ex.getDescription());
+        }
+    }
+
+    String getStatistics() {
+        RuleSet ruleSet = current.get();
+        if (ruleSet.rules.isEmpty()) return "【自定义规则】 无\n";
+        StringBuilder sb = new StringBuilder("【自定义规则】 版本: ").append(ruleSet.version).append(',');
+        for (Rule rule : ruleSet.rules) {
+            sb.append(' ').append(rule.name).append(": ").append(rule.hits.get());
+        }
+        return sb.append('\n').toString();
+    }
+}
@@ -0,0 +1,111 @@
+package burp;
+
+// 提取相关的可配置项，通过Burp扩展设置持久化
+class ExtractionSettings {
+    private static final String KEY_STREAMING_THRESHOLD_KB = "streaming_threshold_kb";
+    private static final String KEY_SIZE_TIERS = "size_tiers";
+    private static final String KEY_SAMPLE_WINDOW_KB = "sample_window_kb";
+    private static final String KEY_SCAN_BUDGET_MS = "scan_budget_ms";
+    private static final String KEY_RETAIN_BODY_MB = "retain_body_mb";
+    private static final String KEY_PARALLEL_SCAN_KB = "parallel_scan_kb";
+    private static final String KEY_URL_SET_OFFHEAP = "url_set_offheap";
+    private static final String KEY_SORT_QUERY_PARAMS = "sort_query_params";
+    private static final String KEY_TEMPLATE_PATHS = "template_paths";
+    private static final String KEY_COLLAPSE_CACHE_BUSTERS = "collapse_cache_busters";
+
+    // 超过该大小的响应使用流式扫描
+    volatile int streamingThresholdKb = 2048;
+
+    // 按MIME类别的大小分级，以及采样模式下头部和尾部各扫描的大小
+    final SizeTierPolicy sizeTiers = new SizeTierPolicy();
+    volatile int sampleWindowKb = 512;
+
+    // 单次扫描（包括自定义正则）的时间预算，超时后保留已提取的结果
+    volatile int scanBudgetMs = 2000;
+
+    // 保留响应体（压缩后）供重新提取的总上限，0为不保留
+    volatile int retainBodyMb = 256;
+
+    // 超过该大小的JS分段并行扫描，0为不拆分
+    volatile int parallelScanKb = 4096;
+
+    // 已处理URL的指纹表放在堆外
+    volatile boolean offHeapUrlSet = false;
+
+    // URL规范化时按参数名排序查询参数
+    volatile boolean sortQueryParams = false;
+
+    // 路径中ID段不同的URL按模板合并，只提取和爬取每个模板的第一个实例
+    volatile boolean templatePaths = false;
+
+    // 去掉缓存参数和文件名哈希后内容相同的资源只提取一次
+    volatile boolean collapseCacheBusters = true;
+
+    // 跳过提取的第三方库
+    final VendorFingerprints vendors = new VendorFingerprints();
+
+    // 用户自定义提取规则
+    final ExtractionRules rules = new ExtractionRules();
+
+    void load(IBurpExtenderCallbacks callbacks) {
+        streamingThresholdKb = loadInt(callbacks, KEY_STREAMING_THRESHOLD_KB, streamingThresholdKb);
+        sampleWindowKb = loadInt(callbacks, KEY_SAMPLE_WINDOW_KB, sampleWindowKb);
+        scanBudgetMs = loadInt(callbacks, KEY_SCAN_BUDGET_MS, scanBudgetMs);
+        retainBodyMb = loadInt(callbacks, KEY_RETAIN_BODY_MB, retainBodyMb);
+        parallelScanKb = loadInt(callbacks, KEY_PARALLEL_SCAN_KB, parallelScanKb);
+        offHeapUrlSet = "true".equals(callbacks.loadExtensionSetting(KEY_URL_SET_OFFHEAP));
+        sortQueryParams = "true".equals(callbacks.loadExtensionSetting(KEY_SORT_QUERY_PARAMS));
+        templatePaths = "true".equals(callbacks.loadExtensionSetting(KEY_TEMPLATE_PATHS));
+        collapseCacheBusters = !"false".equals(callbacks.loadExtensionSetting(KEY_COLLAPSE_CACHE_BUSTERS));
+        sizeTiers.parse(callbacks.loadExtensionSetting(KEY_SIZE_TIERS));
+        vendors.load(callbacks);
+        rules.load(callbacks);
+    }
+
+    void save(IBurpExtenderCallbacks callbacks) {
+        callbacks.saveExtensionSetting(KEY_STREAMING_THRESHOLD_KB, String.valueOf(streamingThresholdKb));
+        callbacks.saveExtensionSetting(KEY_SAMPLE_WINDOW_KB, String.valueOf(sampleWindowKb));
+        callbacks.saveExtensionSetting(KEY_SCAN_BUDGET_MS, String.valueOf(scanBudgetMs));
+        callbacks.saveExtensionSetting(KEY_RETAIN_BODY_MB, String.valueOf(retainBodyMb));
+        callbacks.saveExtensionSetting(KEY_PARALLEL_SCAN_KB, String.valueOf(parallelScanKb));
+        callbacks.saveExtensionSetting(KEY_URL_SET_OFFHEAP, String.valueOf(offHeapUrlSet));
+        callbacks.saveExtensionSetting(KEY_SORT_QUERY_PARAMS, String.valueOf(sortQueryParams));
+        callbacks.saveExtensionSetting(KEY_TEMPLATE_PATHS, String.valueOf(templatePaths));
+        callbacks.saveExtensionSetting(KEY_COLLAPSE_CACHE_BUSTERS, String.valueOf(collapseCacheBusters));
+        callbacks.saveExtensionSetting(KEY_SIZE_TIERS, sizeTiers.serialize());
+        vendors.save(callbacks);
+        rules.save(callbacks);
+    }
+
+    long streamingThresholdBytes() {
+        return streamingThresholdKb * 1024L;
+    }
+
+    int sampleWindowBytes() {
+        return sampleWindowKb * 1024;
+    }
+
+    long scanBudgetNanos() {
+        return scanBudgetMs * 1_000_000L;
+    }
+
+    long retainBodyBytes() {
+        return retainBodyMb * 1024L * 1024L;
+    }
+
+    // 按字符数比较，不拆分时返回Integer.MAX_VALUE
+    int parallelScanChars() {
+        return parallelScanKb <= 0 ? Integer.MAX_VALUE : parallelScanKb * 1024;
+    }
+
+    static int loadInt(IBurpExtenderCallbacks callbacks, String key, int defaultValue) {
+        String value = callbacks.loadExtensionSetting(key);
+        if (value == null || value.trim().isEmpty()) return defaultValue;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException ex) {
+            callbacks.printError("无效的设置项: " + key + "=" + value);
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package burp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 按端点汇总的GraphQL操作目录，跨资源去重。
+// JS中发现的操作不一定能对应到端点：同一资源中出现了端点时归入这些端点，
+// 否则先归入所在域名，展示时若该域名只有一个端点则合并进去
+final class GraphQlCatalog {
+
+    static final class OperationInfo {
+        final String type;
+        final String name;
+        final Set<String> variables = ConcurrentHashMap.newKeySet();
+        final Set<String> sources = ConcurrentHashMap.newKeySet();
+
+        OperationInfo(String type, String name) {
+            this.type = type;
+            this.name = name;
+        }
+    }
+
+    private static final String UNRESOLVED = "";
+
+    // 域名 -> 端点（未确定时为UNRESOLVED）-> "类型 名称" -> 操作
+    private final Map<String, Map<String, Map<String, OperationInfo>>> catalog = new ConcurrentHashMap<>();
+
+    void addEndpoint(String domain, String endpoint) {
+        endpointsOf(domain).computeIfAbsent(endpoint, k -> new ConcurrentHashMap<>());
+    }
+
+    // endpoints为空时归入域名下的未确定端点
+    void addOperations(String domain, Set<String> endpoints, List<GraphQlExtractor.Operation> operations, String source) {
+        if (operations.isEmpty()) return;
+        Map<String, Map<String, OperationInfo>> domainEndpoints = endpointsOf(domain);
+        for (String endpoint : endpoints.isEmpty() ? Collections.singleton(UNRESOLVED) : endpoints) {
+            Map<String, OperationInfo> ops = domainEndpoints.computeIfAbsent(endpoint, k -> new ConcurrentHashMap<>());
+            for (GraphQlExtractor.Operation operation : operations) {
+                OperationInfo info = ops.computeIfAbsent(operation.type + " " + operation.name,
+                        k -> new OperationInfo(operation.type, operation.name));
+                info.variables.addAll(operation.variables);
+                info.sources.add(source);
+            }
+        }
+    }
+
+    private Map<String, Map<String, OperationInfo>> endpointsOf(String domain) {
+        return catalog.computeIfAbsent(domain, k -> new ConcurrentHashMap<>());
+    }
+
+    void clear() {
+        catalog.clear();
+    }
+
+    boolean isEmpty() {
+        return catalog.isEmpty();
+    }
+
+    String report() {
+        StringBuilder sb = new StringBuilder();
+        int endpointCount = 0;
+        int operationCount = 0;
+        for (Map.Entry<String, Map<String, Map<String, OperationInfo>>> domainEntry : new TreeMap<>(catalog).entrySet()) {
+            Map<String, Map<String, OperationInfo>> endpoints = new TreeMap<>(domainEntry.getValue());
+            Map<String, OperationInfo> unresolved = endpoints.remove(UNRESOLVED);
+            if (unresolved != null && endpoints.size() == 1) {
+                // 唯一的端点
+                Map<String, OperationInfo> merged = new TreeMap<>(endpoints.values().iterator().next());
+                for (Map.Entry<String, OperationInfo> op : unresolved.entrySet()) merged.putIfAbsent(op.getKey(), op.getValue());
+                endpoints.put(endpoints.keySet().iterator().next(), merged);
+                unresolved = null;
+            }
+            if (unresolved != null) endpoints.put(domainEntry.getKey() + " (未确定端点)", unresolved);
+
+            for (Map.Entry<String, Map<String, OperationInfo>> endpointEntry : endpoints.entrySet()) {
+                endpointCount++;
+                sb.append("【端点】 ").append(endpointEntry.getKey()).append("\n");
+                for (OperationInfo op : new TreeMap<>(endpointEntry.getValue()).values()) {
+                    operationCount++;
+                    List<String> variables = new ArrayList<>(op.variables);
+                    Collections.sort(variables);
+                    sb.append(String.format("    %-12s %s", op.type, op.name));
+                    if (!variables.isEmpty()) sb.append("  ($").append(String.join(", $", variables)).append(")");
+                    sb.append("  [来源: ").append(op.sources.size()).append("]\n");
+                }
+            }
+        }
+        sb.append(String.format("共 %d 个端点, %d 个操作\n", endpointCount, operationCount));
+        return sb.toString();
+    }
+}
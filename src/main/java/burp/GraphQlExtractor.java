@@ -0,0 +1,300 @@
+package burp;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// GraphQL端点和操作的提取，接在JS的token流上：
+//   - 以 /graphql、/gql 结尾的字符串字面量作为端点
+//   - gql`...` 模板和字符串中的 query/mutation/subscription 文档
+//   - 编译后的文档AST：{kind:"OperationDefinition",operation:"query",name:{kind:"Name",value:"X"},...}
+// 同时提供请求体（{"query": ..., "operationName": ...}）的解析，用于记录流量中的操作
+final class GraphQlExtractor implements JsLexer.TokenSink {
+
+    private static final int MAX_OPERATIONS = 2000;
+    private static final String[] OPERATION_TYPES = {"query", "mutation", "subscription"};
+
+    static final class Operation {
+        final String type;
+        final String name;
+        final Set<String> variables = new LinkedHashSet<>();
+
+        Operation(String type, String name) {
+            this.type = type;
+            this.name = name;
+        }
+    }
+
+    // 端点为字面量原文，由调用方按资源地址解析
+    final Set<String> endpoints = new LinkedHashSet<>();
+    final List<Operation> operations = new ArrayList<>();
+
+    // 文档AST的解析状态
+    private static final String[] AST_KEYS = {"kind", "operation", "value"};
+    private String keyCandidate;
+    private String pendingKey;
+    private String astOperationType;
+    private boolean expectOperationName;
+    private boolean expectVariableName;
+    private Operation astOperation;
+
+    @Override
+    public void token(int type, CharSequence text, int start, int end) {
+        if (type == JsLexer.PUNCTUATOR && end - start == 1 && text.charAt(start) == ':') {
+            pendingKey = keyCandidate;
+            keyCandidate = null;
+            return;
+        }
+        String key = pendingKey;
+        pendingKey = null;
+        keyCandidate = null;
+
+        if (type == JsLexer.IDENTIFIER) {
+            keyCandidate = astKey(text, start, end);
+        } else if (type == JsLexer.STRING || type == JsLexer.TEMPLATE) {
+            CharSequence value = JsLexer.unescape(text, start, end);
+            if (key != null) {
+                astValue(key, value.toString());
+            } else if (isEndpoint(value)) {
+                endpoints.add(value.toString());
+            } else if (value.length() > 8 && contains(value, '{')) {
+                parseDocument(value, operations);
+            }
+            // JSON形式的AST中键是字符串
+            if (type == JsLexer.STRING) keyCandidate = astKey(value, 0, value.length());
+        }
+    }
+
+    // 合并分段扫描的结果
+    void merge(GraphQlExtractor other) {
+        endpoints.addAll(other.endpoints);
+        for (Operation operation : other.operations) {
+            if (operations.size() >= MAX_OPERATIONS) break;
+            operations.add(operation);
+        }
+    }
+
+    private static String astKey(CharSequence text, int start, int end) {
+        for (String key : AST_KEYS) {
+            if (end - start != key.length()) continue;
+            int k = 0;
+            while (k < key.length() && text.charAt(start + k) == key.charAt(k)) k++;
+            if (k == key.length()) return key;
+        }
+        return null;
+    }
+
+    private static boolean contains(CharSequence value, char c) {
+        for (int p = 0; p < value.length(); p++) {
+            if (value.charAt(p) == c) return true;
+        }
+        return false;
+    }
+
+    private void astValue(String key, String v) {
+        switch (key) {
+            case "kind":
+                // 匿名操作没有name，后面的value不是操作名
+                if (expectOperationName && !v.equals("Name")) expectOperationName = false;
+                if (v.equals("OperationDefinition") || v.equals("FragmentDefinition")) {
+                    astOperationType = null;
+                    astOperation = null;
+                    expectOperationName = false;
+                    expectVariableName = false;
+                } else if (v.equals("VariableDefinition")) {
+                    expectVariableName = astOperation != null;
+                }
+                break;
+            case "operation":
+                if (isOperationType(v)) {
+                    astOperationType = v;
+                    expectOperationName = true;
+                }
+                break;
+            case "value":
+                if (expectOperationName) {
+                    astOperation = addOperation(operations, astOperationType, v);
+                    expectOperationName = false;
+                } else if (expectVariableName) {
+                    astOperation.variables.add(v);
+                    expectVariableName = false;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    // 路径最后一段是 graphql/gql，可以带查询参数
+    static boolean isEndpoint(CharSequence value) {
+        int length = value.length();
+        if (length < 4 || length > 512) return false;
+        int end = length;
+        for (int p = 0; p < length; p++) {
+            char c = value.charAt(p);
+            if (c == '?' || c == '#') {
+                end = p;
+                break;
+            }
+            if (c == ' ' || c == '\n' || c == '{') return false;
+        }
+        while (end > 0 && value.charAt(end - 1) == '/') end--;
+        return endsWithSegment(value, end, "graphql") || endsWithSegment(value, end, "gql");
+    }
+
+    private static boolean endsWithSegment(CharSequence value, int end, String segment) {
+        int start = end - segment.length();
+        if (start < 1 || value.charAt(start - 1) != '/') return false;
+        for (int k = 0; k < segment.length(); k++) {
+            if (Character.toLowerCase(value.charAt(start + k)) != segment.charAt(k)) return false;
+        }
+        return true;
+    }
+
+    // query Name($a: T, $b: T) @directive { ... }。关键字必须位于文档开头或上一个定义的'}'之后，
+    // 名称后最终出现'{'，以此排除普通文本
+    static void parseDocument(CharSequence doc, List<Operation> out) {
+        int length = doc.length();
+        int p = 0;
+        char previous = 0; // 上一个非空白字符
+        while (p < length) {
+            char c = doc.charAt(p);
+            if (!isNameStart(c) || (p > 0 && isNameChar(doc.charAt(p - 1)))) {
+                if (c != ' ' && c != '\t' && c != '\n' && c != '\r' && c != ',') previous = c;
+                p++;
+                continue;
+            }
+            int wordEnd = p;
+            while (wordEnd < length && isNameChar(doc.charAt(wordEnd))) wordEnd++;
+            String type = previous == 0 || previous == '}' ? operationType(doc, p, wordEnd) : null;
+            if (type == null) {
+                previous = doc.charAt(wordEnd - 1);
+                p = wordEnd;
+                continue;
+            }
+            previous = 'q';
+
+            int q = skipIgnored(doc, wordEnd, length);
+            int nameStart = q;
+            while (q < length && isNameChar(doc.charAt(q))) q++;
+            if (q == nameStart || q == wordEnd) {
+                p = wordEnd;
+                continue;
+            }
+            String name = doc.subSequence(nameStart, q).toString();
+
+            Set<String> variables = new LinkedHashSet<>();
+            q = skipIgnored(doc, q, length);
+            if (q < length && doc.charAt(q) == '(') {
+                int close = q + 1;
+                while (close < length && doc.charAt(close) != ')') {
+                    if (doc.charAt(close) == '$') {
+                        int v = close + 1;
+                        while (v < length && isNameChar(doc.charAt(v))) v++;
+                        if (v > close + 1) variables.add(doc.subSequence(close + 1, v).toString());
+                        close = v;
+                    } else {
+                        close++;
+                    }
+                }
+                q = skipIgnored(doc, close + 1, length);
+            }
+            // 跳过 @directive(...)
+            while (q < length && doc.charAt(q) == '@') {
+                q++;
+                while (q < length && isNameChar(doc.charAt(q))) q++;
+                if (q < length && doc.charAt(q) == '(') {
+                    while (q < length && doc.charAt(q) != ')') q++;
+                    q++;
+                }
+                q = skipIgnored(doc, q, length);
+            }
+            if (q < length && doc.charAt(q) == '{') {
+                Operation operation = addOperation(out, type, name);
+                if (operation != null) operation.variables.addAll(variables);
+            }
+            p = Math.max(q, wordEnd);
+        }
+    }
+
+    // 请求体: {"query": "...", "operationName": "X"}，或批量请求的数组；
+    // 持久化查询没有query时按operationName记录
+    static void parseRequestBody(CharSequence body, List<Operation> out) {
+        String[] pendingKey = new String[1];
+        Set<String> operationNames = new LinkedHashSet<>();
+        String[] previousString = new String[1];
+        int first = out.size();
+
+        new JsLexer().lex(body, 0, body.length(), (type, text, start, end) -> {
+            if (type == JsLexer.PUNCTUATOR && end - start == 1 && text.charAt(start) == ':') {
+                pendingKey[0] = previousString[0];
+                previousString[0] = null;
+                return;
+            }
+            if (type == JsLexer.STRING) {
+                String value = JsLexer.unescape(text, start, end).toString();
+                if ("query".equals(pendingKey[0])) {
+                    parseDocument(value, out);
+                } else if ("operationName".equals(pendingKey[0])) {
+                    operationNames.add(value);
+                }
+                previousString[0] = pendingKey[0] == null ? value : null;
+            } else {
+                previousString[0] = null;
+            }
+            pendingKey[0] = null;
+        });
+
+        for (int i = first; i < out.size(); i++) {
+            operationNames.remove(out.get(i).name);
+        }
+        for (String name : operationNames) {
+            addOperation(out, "persisted", name);
+        }
+    }
+
+    private static Operation addOperation(List<Operation> out, String type, String name) {
+        if (out.size() >= MAX_OPERATIONS) return null;
+        Operation operation = new Operation(type, name);
+        out.add(operation);
+        return operation;
+    }
+
+    private static String operationType(CharSequence doc, int start, int end) {
+        for (String type : OPERATION_TYPES) {
+            if (end - start == type.length() && type.contentEquals(doc.subSequence(start, end))) return type;
+        }
+        return null;
+    }
+
+    private static boolean isOperationType(String value) {
+        for (String type : OPERATION_TYPES) {
+            if (type.equals(value)) return true;
+        }
+        return false;
+    }
+
+    // GraphQL中的空白、逗号和注释都可以忽略
+    private static int skipIgnored(CharSequence doc, int p, int length) {
+        while (p < length) {
+            char c = doc.charAt(p);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == ',') {
+                p++;
+            } else if (c == '#') {
+                while (p < length && doc.charAt(p) != '\n') p++;
+            } else {
+                break;
+            }
+        }
+        return p;
+    }
+
+    private static boolean isNameStart(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+    }
+
+    private static boolean isNameChar(char c) {
+        return isNameStart(c) || (c >= '0' && c <= '9');
+    }
+}
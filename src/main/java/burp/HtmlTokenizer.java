@@ -0,0 +1,383 @@
+package burp;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 宽松的HTML标签流式分词：只识别标签、属性、注释和原始文本元素，不构建DOM。
+// 每个字符最多被访问常数次，没有回溯，未闭合的引号/注释/标签直接吞到文档末尾，
+// 畸形页面无法让工作线程卡住
+final class HtmlTokenizer {
+
+    // 值为URL的属性
+    private static final String[] URL_ATTRIBUTES = {
+            "src", "href", "action", "formaction", "poster", "data", "cite", "background", "manifest", "longdesc"
+    };
+    // 值为 "url 宽度, url 宽度" 列表的属性
+    private static final String[] SRCSET_ATTRIBUTES = {"srcset", "imagesrcset"};
+    private static final String[] SKIPPED_SCHEMES = {"javascript:", "data:", "mailto:", "tel:", "about:", "blob:"};
+
+    private static final AtomicLong documents = new AtomicLong();
+    private static final AtomicLong inlineScripts = new AtomicLong();
+    private static final AtomicLong baseOverrides = new AtomicLong();
+
+    private final CharSequence text;
+    private final int length;
+    private final LinkScanner.CandidateSink sink;
+    private String baseHref;
+
+    // 当前标签
+    private String tagName;
+    private boolean scriptIsJs;
+
+    private HtmlTokenizer(CharSequence text, LinkScanner.CandidateSink sink) {
+        this.text = text;
+        this.length = text.length();
+        this.sink = sink;
+    }
+
+    // 处理起始位置位于[from, to)内的标签，返回停止位置
+    static int scanLinks(CharSequence text, int from, int to, LinkScanner.CandidateSink sink) {
+        documents.incrementAndGet();
+        HtmlTokenizer tokenizer = new HtmlTokenizer(text, sink);
+        return tokenizer.scan(from, Math.min(to, text.length()));
+    }
+
+    private int scan(int from, int to) {
+        int i = Math.max(0, from);
+        int textStart = i;
+        while (i < to) {
+            if (text.charAt(i) != '<' || i + 1 >= length) {
+                i++;
+                continue;
+            }
+            char next = text.charAt(i + 1);
+            if (next != '!' && next != '?' && next != '/' && !isLetter(next)) {
+                i++;
+                continue;
+            }
+
+            // 标签之间的文本中仍可能出现完整URL
+            textRun(textStart, i);
+            int end;
+            if (next == '!' && regionMatches(i + 2, "--")) {
+                end = indexOf("-->", i + 4);
+                end = end < 0 ? length : end + 3;
+            } else if (isLetter(next)) {
+                end = startTag(i + 1);
+            } else {
+                end = indexOf('>', i + 2);
+                end = end < 0 ? length : end + 1;
+            }
+            i = end;
+            textStart = end;
+        }
+        textRun(textStart, Math.min(i, to));
+        return i;
+    }
+
+    private void textRun(int start, int end) {
+        if (end > start) {
+            LinkScanner.scan(text, start, end, 0, candidates());
+        }
+    }
+
+    // 解析 <name attr=value ...>，返回标签结束后的位置
+    private int startTag(int nameStart) {
+        int p = nameStart;
+        while (p < length && isNameChar(text.charAt(p))) p++;
+        tagName = text.subSequence(nameStart, p).toString().toLowerCase();
+        scriptIsJs = true;
+
+        while (p < length) {
+            p = skipWhitespaceAndSlashes(p);
+            if (p >= length) return length;
+            if (text.charAt(p) == '>') {
+                p++;
+                break;
+            }
+
+            int attrStart = p;
+            while (p < length && !isAttributeNameEnd(text.charAt(p))) p++;
+            int attrEnd = p;
+            if (attrEnd == attrStart) {
+                // 孤立的 '=' 等字符
+                p++;
+                continue;
+            }
+
+            p = skipWhitespace(p);
+            if (p < length && text.charAt(p) == '=') {
+                p = skipWhitespace(p + 1);
+                int valueStart;
+                int valueEnd;
+                if (p < length && (text.charAt(p) == '"' || text.charAt(p) == '\'')) {
+                    char quote = text.charAt(p);
+                    valueStart = p + 1;
+                    valueEnd = indexOf(quote, valueStart);
+                    if (valueEnd < 0) return length;
+                    p = valueEnd + 1;
+                } else {
+                    valueStart = p;
+                    while (p < length && !isWhitespace(text.charAt(p)) && text.charAt(p) != '>') p++;
+                    valueEnd = p;
+                }
+                attribute(attrStart, attrEnd, valueStart, valueEnd);
+            }
+        }
+
+        // 原始文本元素的内容不是标签，整段交给对应的扫描器
+        if (tagName.equals("script")) {
+            return rawText(p, "</script", true);
+        } else if (tagName.equals("style")) {
+            return rawText(p, "</style", false);
+        } else if (tagName.equals("textarea") || tagName.equals("title")) {
+            // 内容是纯文本，其中的 <a href> 不是标签
+            int close = indexOfIgnoreCase("</" + tagName, p);
+            int contentEnd = close < 0 ? length : close;
+            textRun(p, contentEnd);
+            return contentEnd;
+        }
+        return p;
+    }
+
+    private void attribute(int nameStart, int nameEnd, int valueStart, int valueEnd) {
+        String name = text.subSequence(nameStart, nameEnd).toString().toLowerCase();
+        if (valueEnd <= valueStart) return;
+
+        if (name.equals("href") && tagName.equals("base")) {
+            baseHref = decodeEntities(text.subSequence(valueStart, valueEnd).toString().trim());
+            baseOverrides.incrementAndGet();
+            return;
+        }
+        if (name.equals("type") && tagName.equals("script")) {
+            scriptIsJs = isJavaScriptType(text.subSequence(valueStart, valueEnd).toString().trim().toLowerCase());
+            return;
+        }
+        if (name.equals("content") && tagName.equals("meta")) {
+            // <meta http-equiv="refresh" content="0; url=/next">
+            String content = text.subSequence(valueStart, valueEnd).toString();
+            int url = content.toLowerCase().indexOf("url=");
+            if (url >= 0) emit(content.substring(url + 4));
+            return;
+        }
+
+        for (String attribute : URL_ATTRIBUTES) {
+            if (attribute.equals(name)) {
+                emit(text.subSequence(valueStart, valueEnd).toString());
+                return;
+            }
+        }
+        for (String attribute : SRCSET_ATTRIBUTES) {
+            if (attribute.equals(name)) {
+                srcset(text.subSequence(valueStart, valueEnd).toString());
+                return;
+            }
+        }
+        if (name.equals("style")) {
+            LinkScanner.scan(text, valueStart, valueEnd, LinkScanner.MODE_CSS, candidates());
+        } else if (name.startsWith("data-")) {
+            // data-* 的值不一定是URL，按字面量规则判断
+            LinkScanner.scanLiteral(decodeEntities(text.subSequence(valueStart, valueEnd).toString().trim()), false, candidates());
+        }
+    }
+
+    // "a.png 1x, b.png 2x" / "a.jpg 480w, b.jpg 800w"
+    private void srcset(String value) {
+        int p = 0;
+        int n = value.length();
+        while (p < n) {
+            while (p < n && (isWhitespace(value.charAt(p)) || value.charAt(p) == ',')) p++;
+            int start = p;
+            while (p < n && !isWhitespace(value.charAt(p))) p++;
+            int end = p;
+            // URL本身可以包含逗号，结尾的逗号是分隔符
+            while (end > start && value.charAt(end - 1) == ',') end--;
+            if (end > start) emit(value.substring(start, end));
+            // 没有描述符时逗号紧跟在URL后，否则跳过描述符
+            if (end == p) {
+                while (p < n && value.charAt(p) != ',') p++;
+            }
+        }
+    }
+
+    private int rawText(int contentStart, String closeTag, boolean script) {
+        int close = indexOfIgnoreCase(closeTag, contentStart);
+        int contentEnd = close < 0 ? length : close;
+        if (contentEnd > contentStart) {
+            CharSequence content = text.subSequence(contentStart, contentEnd);
+            if (!script) {
+                LinkScanner.scan(content, 0, content.length(), LinkScanner.MODE_CSS, candidates());
+            } else if (scriptIsJs) {
+                inlineScripts.incrementAndGet();
+                JsLexer.scanLinks(content, 0, content.length(), candidates());
+            } else {
+                // application/json、text/template 等数据块
+                LinkScanner.scan(content, 0, content.length(), 0, candidates());
+            }
+        }
+        return contentEnd;
+    }
+
+    // 文档中出现<base href>后，相对地址按它解析
+    private LinkScanner.CandidateSink candidates() {
+        if (baseHref == null) return sink;
+        return (value, absolute) -> {
+            if (absolute) {
+                sink.accept(value, true);
+            } else {
+                String resolved = resolveAgainstBase(value);
+                sink.accept(resolved, isAbsoluteUrl(resolved));
+            }
+        };
+    }
+
+    private void emit(String raw) {
+        String value = decodeEntities(raw.trim());
+        int hash = value.indexOf('#');
+        if (hash >= 0) value = value.substring(0, hash);
+        if (value.isEmpty()) return;
+        String lower = value.length() > 12 ? value.substring(0, 12).toLowerCase() : value.toLowerCase();
+        for (String scheme : SKIPPED_SCHEMES) {
+            if (lower.startsWith(scheme)) return;
+        }
+        candidates().accept(value, isAbsoluteUrl(value));
+    }
+
+    private String resolveAgainstBase(String value) {
+        try {
+            return URI.create(baseHref).resolve(value).toString();
+        } catch (IllegalArgumentException ex) {
+            return value;
+        }
+    }
+
+    private static boolean isAbsoluteUrl(String value) {
+        return value.regionMatches(true, 0, "http://", 0, 7) || value.regionMatches(true, 0, "https://", 0, 8);
+    }
+
+    private static boolean isJavaScriptType(String type) {
+        return type.isEmpty() || type.equals("module") || type.contains("javascript") || type.contains("ecmascript")
+                || type.equals("text/babel") || type.equals("text/jsx");
+    }
+
+    // 只处理URL中常见的实体
+    static String decodeEntities(String value) {
+        int amp = value.indexOf('&');
+        if (amp < 0) return value;
+
+        StringBuilder sb = new StringBuilder(value.length());
+        sb.append(value, 0, amp);
+        int p = amp;
+        int n = value.length();
+        while (p < n) {
+            char c = value.charAt(p);
+            int semi = c == '&' ? entityEnd(value, p, n) : -1;
+            if (semi < 0) {
+                sb.append(c);
+                p++;
+                continue;
+            }
+            String entity = value.substring(p + 1, semi);
+            int decoded = -1;
+            if (entity.equals("amp")) decoded = '&';
+            else if (entity.equals("quot")) decoded = '"';
+            else if (entity.equals("apos")) decoded = '\'';
+            else if (entity.equals("lt")) decoded = '<';
+            else if (entity.equals("gt")) decoded = '>';
+            else if (entity.startsWith("#x") || entity.startsWith("#X")) decoded = parseCodePoint(entity.substring(2), 16);
+            else if (entity.startsWith("#")) decoded = parseCodePoint(entity.substring(1), 10);
+
+            if (decoded < 0) {
+                sb.append(c);
+                p++;
+            } else {
+                sb.appendCodePoint(decoded);
+                p = semi + 1;
+            }
+        }
+        return sb.toString();
+    }
+
+    // '&'之后10个字符内的';'，只在这个范围内查找，大量没有';'的'&'不会退化为平方复杂度
+    private static int entityEnd(String value, int amp, int n) {
+        int limit = Math.min(n, amp + 11);
+        for (int q = amp + 1; q < limit; q++) {
+            if (value.charAt(q) == ';') return q;
+        }
+        return -1;
+    }
+
+    private static int parseCodePoint(String digits, int radix) {
+        try {
+            int value = Integer.parseInt(digits, radix);
+            return Character.isValidCodePoint(value) ? value : -1;
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    private int indexOf(char c, int from) {
+        for (int p = from; p < length; p++) {
+            if (text.charAt(p) == c) return p;
+        }
+        return -1;
+    }
+
+    private int indexOf(String s, int from) {
+        char first = s.charAt(0);
+        for (int p = from; p <= length - s.length(); p++) {
+            if (text.charAt(p) == first && regionMatches(p, s)) return p;
+        }
+        return -1;
+    }
+
+    // closeTag为小写，只在'<'处比较，整体仍是线性的
+    private int indexOfIgnoreCase(String closeTag, int from) {
+        for (int p = from; p <= length - closeTag.length(); p++) {
+            if (text.charAt(p) != '<') continue;
+            int k = 1;
+            while (k < closeTag.length() && Character.toLowerCase(text.charAt(p + k)) == closeTag.charAt(k)) k++;
+            if (k == closeTag.length()) return p;
+        }
+        return -1;
+    }
+
+    private boolean regionMatches(int offset, String expected) {
+        if (offset + expected.length() > length) return false;
+        for (int k = 0; k < expected.length(); k++) {
+            if (text.charAt(offset + k) != expected.charAt(k)) return false;
+        }
+        return true;
+    }
+
+    private int skipWhitespace(int p) {
+        while (p < length && isWhitespace(text.charAt(p))) p++;
+        return p;
+    }
+
+    private int skipWhitespaceAndSlashes(int p) {
+        while (p < length && (isWhitespace(text.charAt(p)) || text.charAt(p) == '/')) p++;
+        return p;
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isNameChar(char c) {
+        return isLetter(c) || (c >= '0' && c <= '9') || c == '-' || c == ':' || c == '_';
+    }
+
+    private static boolean isAttributeNameEnd(char c) {
+        return isWhitespace(c) || c == '=' || c == '>' || c == '/';
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+    }
+
+    static String getStatistics() {
+        return String.format("【HTML】 文档: %d, 内联脚本: %d, <base href>: %d\n",
+                documents.get(), inlineScripts.get(), baseOverrides.get());
+    }
+}
@@ -0,0 +1,181 @@
+package burp;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 异步解析管道：HTTP监听线程只负责把响应引用放入有界队列，解析由独立的工作线程完成
+class IngestPipeline {
+
+    // 队列满时的处理策略
+    enum ShedPolicy {
+        DROP_NEWEST, // 丢弃新到的消息
+        DROP_OLDEST  // 丢弃队列中最旧的消息，为新消息腾出位置
+    }
+
+    // 监听线程中捕获的轻量引用，不做任何解析
+    static class Task {
+        final IHttpService service;
+        final byte[] request;
+        final byte[] response;
+        final long enqueuedAt;
+
+        Task(IHttpService service, byte[] request, byte[] response) {
+            this.service = service;
+            this.request = request;
+            this.response = response;
+            this.enqueuedAt = System.nanoTime();
+        }
+    }
+
+    interface Handler {
+        void handle(Task task) throws Exception;
+    }
+
+    interface ErrorReporter {
+        void report(String message);
+    }
+
+    private final BlockingQueue<Task> queue;
+    private final int capacity;
+    private final int highWaterMark;
+    private final ShedPolicy policy;
+    private final Handler handler;
+    private final ErrorReporter errorReporter;
+    private final ExecutorService workers;
+    private volatile boolean running = true;
+
+    // 统计计数
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong listenerNanos = new AtomicLong();
+    private final AtomicLong listenerCalls = new AtomicLong();
+    private final AtomicLong listenerMaxNanos = new AtomicLong();
+    private final AtomicLong queueWaitNanos = new AtomicLong();
+    private final AtomicInteger maxDepth = new AtomicInteger();
+
+    IngestPipeline(int capacity, int workerCount, ShedPolicy policy, Handler handler, ErrorReporter errorReporter) {
+        this.capacity = capacity;
+        this.highWaterMark = Math.max(1, capacity * 3 / 4);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.policy = policy;
+        this.handler = handler;
+        this.errorReporter = errorReporter;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread t = new Thread(r, "APIFuzz-ingest-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < workerCount; i++) {
+            workers.submit(this::workerLoop);
+        }
+    }
+
+    // 在监听线程中调用，只做入队，不阻塞。先决定是否丢弃，被丢弃的消息不再复制请求和响应
+    void submit(IHttpRequestResponse message) {
+        long start = System.nanoTime();
+        if (!running) return;
+
+        if (queue.size() >= highWaterMark) {
+            deferred.incrementAndGet();
+        }
+        if (policy == ShedPolicy.DROP_NEWEST && queue.remainingCapacity() == 0) {
+            dropped.incrementAndGet();
+            recordListenerTime(System.nanoTime() - start);
+            return;
+        }
+
+        byte[] response = message.getResponse();
+        if (response == null || response.length == 0) {
+            recordListenerTime(System.nanoTime() - start);
+            return;
+        }
+        Task task = new Task(message.getHttpService(), message.getRequest(), response);
+        if (policy == ShedPolicy.DROP_OLDEST) {
+            // 每次腾出位置丢弃一条最旧的消息，其他监听线程抢先占用时继续腾出，新消息总能入队
+            while (!queue.offer(task)) {
+                if (queue.poll() != null) dropped.incrementAndGet();
+            }
+            accepted.incrementAndGet();
+        } else if (queue.offer(task)) {
+            accepted.incrementAndGet();
+        } else {
+            // 检查之后队列被其他监听线程填满
+            dropped.incrementAndGet();
+        }
+
+        int depth = queue.size();
+        int currentMax;
+        while (depth > (currentMax = maxDepth.get()) && !maxDepth.compareAndSet(currentMax, depth)) {
+            // 重试直到更新成功
+        }
+        recordListenerTime(System.nanoTime() - start);
+    }
+
+    private void recordListenerTime(long nanos) {
+        listenerNanos.addAndGet(nanos);
+        listenerCalls.incrementAndGet();
+        long currentMax;
+        while (nanos > (currentMax = listenerMaxNanos.get()) && !listenerMaxNanos.compareAndSet(currentMax, nanos)) {
+            // 重试直到更新成功
+        }
+    }
+
+    private void workerLoop() {
+        while (running) {
+            Task task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            queueWaitNanos.addAndGet(System.nanoTime() - task.enqueuedAt);
+            try {
+                handler.handle(task);
+                processed.incrementAndGet();
+            } catch (Throwable ex) {
+                // 自定义正则在超大响应上可能栈溢出，Error也要捕获，否则工作线程静默退出
+                failed.incrementAndGet();
+                errorReporter.report("解析响应失败: " + ex);
+            }
+        }
+    }
+
+    void shutdown() {
+        running = false;
+        workers.shutdownNow();
+        try {
+            workers.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        queue.clear();
+    }
+
+    String getStatistics() {
+        long calls = listenerCalls.get();
+        long handled = processed.get() + failed.get();
+        double avgListenerMicros = calls == 0 ? 0 : listenerNanos.get() / 1000.0 / calls;
+        double avgWaitMillis = handled == 0 ? 0 : queueWaitNanos.get() / 1_000_000.0 / handled;
+
+        return String.format(
+                "【解析队列】 策略: %s, 容量: %d, 当前积压: %d, 最大积压: %d\n" +
+                        "【消息计数】 入队: %d, 已处理: %d, 失败: %d, 丢弃: %d, 延后: %d\n" +
+                        "【监听耗时】 平均: %.1f µs, 最大: %.1f µs, 平均排队: %.2f ms\n",
+                policy, capacity, queue.size(), maxDepth.get(),
+                accepted.get(), processed.get(), failed.get(), dropped.get(), deferred.get(),
+                avgListenerMicros, listenerMaxNanos.get() / 1000.0, avgWaitMillis
+        );
+    }
+}
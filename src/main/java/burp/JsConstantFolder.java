@@ -0,0 +1,224 @@
+package burp;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// JS字符串拼接的常量折叠：在token流上线性处理 "/api/" + "v1/" + "users" 以及
+// const X = "..." 定义后 X + "/orders" 形式的拼接，不构建语法树。
+// 常量只在最近的token窗口内有效，拼接结果和常量表的大小都有上限
+final class JsConstantFolder implements JsLexer.TokenSink {
+
+    private static final int MAX_CONSTANTS = 1024;
+    static final int CONSTANT_WINDOW_TOKENS = 4096;
+    private static final int MAX_FOLDED_LENGTH = 2048;
+    private static final String[] LINK_CALLEES = {"import", "require", "fetch", "open"};
+
+    private static class Constant {
+        final String value;
+        final long tokenIndex;
+
+        Constant(String value, long tokenIndex) {
+            this.value = value;
+            this.tokenIndex = tokenIndex;
+        }
+    }
+
+    private final LinkScanner.CandidateSink sink;
+    private final Map<String, Constant> constants = new LinkedHashMap<String, Constant>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Constant> eldest) {
+            return size() > MAX_CONSTANTS;
+        }
+    };
+    private long tokenIndex;
+    // 已定义常量名的 (长度, 首字符) 位图，大多数标识符无需生成字符串即可判定未定义
+    private long nameMask;
+
+    // 当前操作数：字符串值，或标识符在原文中的位置
+    private boolean operandPending;
+    private CharSequence operandString;
+    private CharSequence identifierText;
+    private int identifierStart;
+    private int identifierEnd;
+    private boolean afterDot;
+
+    // 当前拼接链：连续已知操作数的拼接结果
+    private final StringBuilder run = new StringBuilder();
+    private int runOperands;
+    private boolean runOverflow;
+    private int chainOperands;
+    private boolean chainAllKnown = true;
+    private boolean chainInLinkCall;
+    private String assignTarget;
+
+    JsConstantFolder(LinkScanner.CandidateSink sink) {
+        this.sink = sink;
+    }
+
+    long tokenCount() {
+        return tokenIndex;
+    }
+
+    boolean hasConstants() {
+        return !constants.isEmpty();
+    }
+
+    // 结束当前的拼接链
+    void flush() {
+        endChain();
+    }
+
+    @Override
+    public void token(int type, CharSequence text, int start, int end) {
+        tokenIndex++;
+        switch (type) {
+            case JsLexer.STRING:
+                startOperand();
+                operandString = JsLexer.unescape(text, start, end);
+                break;
+            case JsLexer.IDENTIFIER:
+                // 成员访问 a.b.baseURL 按最后的属性名查找
+                if (!afterDot || !operandPending) {
+                    startOperand();
+                }
+                operandString = null;
+                identifierText = text;
+                identifierStart = start;
+                identifierEnd = end;
+                afterDot = false;
+                break;
+            case JsLexer.NUMBER:
+            case JsLexer.TEMPLATE:
+                startOperand();
+                break;
+            case JsLexer.PUNCTUATOR:
+                punctuator(text, start, end);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void punctuator(CharSequence text, int start, int end) {
+        char c = text.charAt(start);
+        boolean single = end - start == 1;
+
+        if (single && c == '.') {
+            afterDot = operandPending;
+            return;
+        }
+        afterDot = false;
+
+        if (single && c == '+') {
+            if (operandPending) commitOperand();
+            return;
+        }
+
+        if (single && (c == '=' || c == ':')) {
+            // X = ... / key: ... / "key": ...，链结束后把完整的已知值记录为常量
+            String target = null;
+            if (operandPending && chainOperands == 0) {
+                if (identifierText != null) {
+                    target = identifierText.subSequence(identifierStart, identifierEnd).toString();
+                } else if (operandString != null) {
+                    target = operandString.toString();
+                }
+            }
+            resetChain();
+            assignTarget = target;
+            return;
+        }
+
+        if (single && c == '(') {
+            boolean linkCall = operandPending && identifierText != null
+                    && JsLexer.matchesAny(identifierText, identifierStart, identifierEnd, LINK_CALLEES);
+            endChain();
+            chainInLinkCall = linkCall;
+            return;
+        }
+
+        endChain();
+    }
+
+    private void startOperand() {
+        if (operandPending) {
+            // 两个操作数之间没有'+'，说明上一个表达式已经结束
+            endChain();
+        }
+        operandPending = true;
+        operandString = null;
+        identifierText = null;
+    }
+
+    private void commitOperand() {
+        CharSequence operandValue = operandString != null ? operandString : lookupIdentifier();
+        operandPending = false;
+        operandString = null;
+        identifierText = null;
+        chainOperands++;
+        if (operandValue == null) {
+            chainAllKnown = false;
+            flushRun();
+            return;
+        }
+        if (runOverflow || run.length() + operandValue.length() > MAX_FOLDED_LENGTH) {
+            runOverflow = true;
+            return;
+        }
+        run.append(operandValue);
+        runOperands++;
+    }
+
+    // 两个及以上已知操作数拼接成的新字面量交给链接匹配
+    private void flushRun() {
+        if (runOperands >= 2 && !runOverflow) {
+            LinkScanner.scanLiteral(run, chainInLinkCall, sink);
+        }
+        run.setLength(0);
+        runOperands = 0;
+        runOverflow = false;
+    }
+
+    private void endChain() {
+        if (operandPending) commitOperand();
+
+        if (assignTarget != null && chainOperands > 0 && chainAllKnown && !runOverflow) {
+            constants.put(assignTarget, new Constant(run.toString(), tokenIndex));
+            nameMask |= nameBit(assignTarget, 0, assignTarget.length());
+        }
+        flushRun();
+        resetChain();
+    }
+
+    private void resetChain() {
+        operandPending = false;
+        operandString = null;
+        identifierText = null;
+        run.setLength(0);
+        runOperands = 0;
+        runOverflow = false;
+        chainOperands = 0;
+        chainAllKnown = true;
+        chainInLinkCall = false;
+        assignTarget = null;
+    }
+
+    private CharSequence lookupIdentifier() {
+        if (identifierText == null || (nameMask & nameBit(identifierText, identifierStart, identifierEnd)) == 0) {
+            return null;
+        }
+        String name = identifierText.subSequence(identifierStart, identifierEnd).toString();
+        Constant constant = constants.get(name);
+        if (constant == null) return null;
+        if (tokenIndex - constant.tokenIndex > CONSTANT_WINDOW_TOKENS) {
+            constants.remove(name);
+            return null;
+        }
+        return constant.value;
+    }
+
+    private static long nameBit(CharSequence text, int start, int end) {
+        if (end <= start) return 0;
+        return 1L << (((end - start) * 31 + text.charAt(start)) & 63);
+    }
+}
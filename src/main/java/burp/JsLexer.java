@@ -0,0 +1,478 @@
+package burp;
+
+import java.util.Arrays;
+
+// 轻量JS词法分析：跳过注释和正则字面量，输出字符串/模板字面量、标识符、数字和标点。
+// 不构建语法树，线性时间，无回溯
+final class JsLexer {
+    static final int STRING = 1;
+    static final int TEMPLATE = 2;
+    static final int IDENTIFIER = 3;
+    static final int NUMBER = 4;
+    static final int PUNCTUATOR = 5;
+
+    // STRING/TEMPLATE 的[start, end)为不含引号的原始内容，转义未处理
+    interface TokenSink {
+        void token(int type, CharSequence text, int start, int end);
+    }
+
+    // 这些关键字之后的'/'是正则字面量而不是除号
+    private static final String[] REGEX_PREFIX_KEYWORDS = {
+            "return", "typeof", "instanceof", "in", "of", "new", "delete", "void",
+            "throw", "case", "do", "else", "yield", "await"
+    };
+
+    private static final String[] LINK_CALLEES = {"import", "require", "fetch", "open"};
+
+    private int lastType;
+    private char lastPunctuator;
+    private boolean lastIsRegexPrefixKeyword;
+    private int braceDepth;
+    private int[] templateStack = new int[8];
+    private int templateDepth;
+
+    // JS响应的链接扫描：只把字符串和模板字面量的内容交给链接匹配，同时折叠字符串拼接、解析webpack chunk映射
+    static int scanLinks(CharSequence text, int from, int to, LinkScanner.CandidateSink sink) {
+        return scanLinks(text, from, to, sink, null);
+    }
+
+    // graphQl不为null时同时收集GraphQL端点和操作
+    static int scanLinks(CharSequence text, int from, int to, LinkScanner.CandidateSink sink, GraphQlExtractor graphQl) {
+        LinkPass pass = new LinkPass(sink, graphQl);
+        int stop = pass.lex(text, from, to);
+        pass.finish();
+        return stop;
+    }
+
+    // 续扫常量时每次处理的字符数，每步之后检查是否已超出常量的有效范围
+    private static final int CARRY_STEP_CHARS = 16 * 1024;
+
+    // 一次链接扫描的词法器和各个token消费者，可以分多次lex连续处理相邻的范围
+    static final class LinkPass implements TokenSink {
+        private final JsLexer lexer = new JsLexer();
+        private final LinkTokenSink literals;
+        private final JsConstantFolder folder;
+        private final WebpackChunkExtractor webpackChunks;
+        private final GraphQlExtractor graphQl;
+
+        LinkPass(LinkScanner.CandidateSink sink, GraphQlExtractor graphQl) {
+            this.literals = new LinkTokenSink(sink);
+            this.folder = new JsConstantFolder(sink);
+            this.webpackChunks = new WebpackChunkExtractor(sink);
+            this.graphQl = graphQl;
+        }
+
+        int lex(CharSequence text, int from, int to) {
+            return lexer.lex(text, from, to, this);
+        }
+
+        // 停止位置不在模板字面量的 ${...} 中
+        boolean atTopLevel() {
+            return lexer.templateDepth == 0;
+        }
+
+        void finish() {
+            webpackChunks.finish();
+        }
+
+        // 并行扫描合并：后一段的webpack chunk表达式和publicPath并入本段，chunk地址在最后统一生成
+        void absorb(LinkPass next) {
+            webpackChunks.merge(next.webpackChunks);
+        }
+
+        // 本段定义的常量在之后的CONSTANT_WINDOW_TOKENS个token内仍然有效，
+        // 只用常量折叠继续扫描下一段开头的这部分内容，补上引用了本段常量的拼接
+        void carryConstants(CharSequence text, int from, int to) {
+            if (!folder.hasConstants()) return;
+            long limit = folder.tokenCount() + JsConstantFolder.CONSTANT_WINDOW_TOKENS;
+            int p = from;
+            while (p < to && folder.tokenCount() <= limit) {
+                p = lexer.lex(text, p, Math.min(to, p + CARRY_STEP_CHARS), folder);
+            }
+            folder.flush();
+        }
+
+        @Override
+        public void token(int type, CharSequence text, int start, int end) {
+            literals.token(type, text, start, end);
+            folder.token(type, text, start, end);
+            webpackChunks.token(type, text, start, end);
+            if (graphQl != null) graphQl.token(type, text, start, end);
+        }
+    }
+
+    // 处理起始位置位于[from, to)内的token，token内容可以越过to，返回停止位置
+    int lex(CharSequence text, int from, int to, TokenSink sink) {
+        int length = text.length();
+        to = Math.min(to, length);
+        int i = Math.max(0, from);
+
+        while (i < to) {
+            char c = text.charAt(i);
+            switch (c) {
+                case ' ':
+                case '\t':
+                case '\n':
+                case '\r':
+                case '\f':
+                case 0x0B:
+                    i++;
+                    break;
+                case '"':
+                case '\'':
+                    i = lexString(text, i, length, sink);
+                    break;
+                case '`':
+                    i = lexTemplate(text, i + 1, length, sink);
+                    break;
+                case '/': {
+                    char next = i + 1 < length ? text.charAt(i + 1) : 0;
+                    if (next == '/') {
+                        i = skipLineComment(text, i + 2, length);
+                    } else if (next == '*') {
+                        i = skipBlockComment(text, i + 2, length);
+                    } else if (isRegexAllowed()) {
+                        i = skipRegex(text, i + 1, length);
+                        lastType = NUMBER; // 正则字面量之后视为操作数
+                    } else {
+                        int end = next == '=' ? i + 2 : i + 1;
+                        punctuator(text, i, end, sink);
+                        i = end;
+                    }
+                    break;
+                }
+                case '{':
+                    braceDepth++;
+                    punctuator(text, i, i + 1, sink);
+                    i++;
+                    break;
+                case '}':
+                    if (templateDepth > 0 && templateStack[templateDepth - 1] == braceDepth) {
+                        // ${...} 结束，回到模板字面量
+                        templateDepth--;
+                        i = lexTemplate(text, i + 1, length, sink);
+                    } else {
+                        braceDepth--;
+                        punctuator(text, i, i + 1, sink);
+                        i++;
+                    }
+                    break;
+                case '(':
+                case ')':
+                case '[':
+                case ']':
+                case ';':
+                case ',':
+                case '?':
+                case ':':
+                case '~':
+                    punctuator(text, i, i + 1, sink);
+                    i++;
+                    break;
+                case '.':
+                    if (i + 1 < length && isDigit(text.charAt(i + 1))) {
+                        i = lexNumber(text, i, length, sink);
+                    } else {
+                        punctuator(text, i, i + 1, sink);
+                        i++;
+                    }
+                    break;
+                default:
+                    if (isDigit(c)) {
+                        i = lexNumber(text, i, length, sink);
+                    } else if (isIdentifierStart(c)) {
+                        i = lexIdentifier(text, i, length, sink);
+                    } else if (isOperatorChar(c)) {
+                        int end = i + 1;
+                        while (end < length && isOperatorChar(text.charAt(end))) end++;
+                        punctuator(text, i, end, sink);
+                        i = end;
+                    } else {
+                        i++;
+                    }
+                    break;
+            }
+        }
+        return i;
+    }
+
+    private boolean isRegexAllowed() {
+        switch (lastType) {
+            case 0:
+                return true;
+            case PUNCTUATOR:
+                return lastPunctuator != ')' && lastPunctuator != ']' && lastPunctuator != '}';
+            case IDENTIFIER:
+                return lastIsRegexPrefixKeyword;
+            default:
+                return false;
+        }
+    }
+
+    private void punctuator(CharSequence text, int start, int end, TokenSink sink) {
+        lastType = PUNCTUATOR;
+        lastPunctuator = text.charAt(end - 1);
+        sink.token(PUNCTUATOR, text, start, end);
+    }
+
+    private int lexString(CharSequence text, int quoteIndex, int length, TokenSink sink) {
+        char quote = text.charAt(quoteIndex);
+        int p = quoteIndex + 1;
+        while (p < length) {
+            char c = text.charAt(p);
+            if (c == quote) {
+                lastType = STRING;
+                sink.token(STRING, text, quoteIndex + 1, p);
+                return p + 1;
+            }
+            if (c == '\\') {
+                p += 2;
+            } else if (c == '\n') {
+                // 未闭合的字符串，在换行处恢复
+                return p;
+            } else {
+                p++;
+            }
+        }
+        return length;
+    }
+
+    // 从模板内容起始位置扫描到 ` 或 ${
+    private int lexTemplate(CharSequence text, int start, int length, TokenSink sink) {
+        int p = start;
+        while (p < length) {
+            char c = text.charAt(p);
+            if (c == '\\') {
+                p += 2;
+                continue;
+            }
+            if (c == '`') {
+                lastType = TEMPLATE;
+                sink.token(TEMPLATE, text, start, p);
+                return p + 1;
+            }
+            if (c == '$' && p + 1 < length && text.charAt(p + 1) == '{') {
+                sink.token(TEMPLATE, text, start, p);
+                if (templateDepth == templateStack.length) {
+                    templateStack = Arrays.copyOf(templateStack, templateDepth * 2);
+                }
+                templateStack[templateDepth++] = braceDepth;
+                lastType = PUNCTUATOR;
+                lastPunctuator = '{';
+                return p + 2;
+            }
+            p++;
+        }
+        sink.token(TEMPLATE, text, start, length);
+        return length;
+    }
+
+    private static int skipLineComment(CharSequence text, int p, int length) {
+        while (p < length && text.charAt(p) != '\n') p++;
+        return p;
+    }
+
+    private static int skipBlockComment(CharSequence text, int p, int length) {
+        while (p + 1 < length) {
+            if (text.charAt(p) == '*' && text.charAt(p + 1) == '/') return p + 2;
+            p++;
+        }
+        return length;
+    }
+
+    private static int skipRegex(CharSequence text, int p, int length) {
+        boolean inClass = false;
+        while (p < length) {
+            char c = text.charAt(p);
+            if (c == '\\') {
+                p += 2;
+                continue;
+            }
+            if (c == '\n') return p;
+            if (c == '[') {
+                inClass = true;
+            } else if (c == ']') {
+                inClass = false;
+            } else if (c == '/' && !inClass) {
+                p++;
+                while (p < length && isIdentifierPart(text.charAt(p))) p++;
+                return p;
+            }
+            p++;
+        }
+        return length;
+    }
+
+    private int lexNumber(CharSequence text, int start, int length, TokenSink sink) {
+        int p = start + 1;
+        while (p < length) {
+            char c = text.charAt(p);
+            if (!isIdentifierPart(c) && c != '.') break;
+            p++;
+        }
+        lastType = NUMBER;
+        sink.token(NUMBER, text, start, p);
+        return p;
+    }
+
+    private int lexIdentifier(CharSequence text, int start, int length, TokenSink sink) {
+        int p = start + 1;
+        while (p < length && isIdentifierPart(text.charAt(p))) p++;
+        lastType = IDENTIFIER;
+        lastIsRegexPrefixKeyword = matchesAny(text, start, p, REGEX_PREFIX_KEYWORDS);
+        sink.token(IDENTIFIER, text, start, p);
+        return p;
+    }
+
+    static boolean matchesAny(CharSequence text, int start, int end, String[] words) {
+        int length = end - start;
+        for (String word : words) {
+            if (word.length() != length) continue;
+            boolean equal = true;
+            for (int k = 0; k < length && equal; k++) {
+                equal = Character.toLowerCase(text.charAt(start + k)) == word.charAt(k);
+            }
+            if (equal) return true;
+        }
+        return false;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isIdentifierStart(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == '$' || c >= 0x80;
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return isIdentifierStart(c) || isDigit(c);
+    }
+
+    private static boolean isOperatorChar(char c) {
+        switch (c) {
+            case '+':
+            case '-':
+            case '*':
+            case '%':
+            case '=':
+            case '!':
+            case '<':
+            case '>':
+            case '&':
+            case '|':
+            case '^':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // 处理字符串中的转义序列，内容不含反斜杠时直接返回原片段
+    static CharSequence unescape(CharSequence text, int start, int end) {
+        int backslash = -1;
+        for (int p = start; p < end; p++) {
+            if (text.charAt(p) == '\\') {
+                backslash = p;
+                break;
+            }
+        }
+        if (backslash < 0) return text.subSequence(start, end);
+
+        // 未转义的部分整段经过toString()，字节视图中的非ASCII字符按响应的charset解码
+        StringBuilder sb = new StringBuilder(end - start);
+        sb.append(text.subSequence(start, backslash).toString());
+        int p = backslash;
+        while (p < end) {
+            if (text.charAt(p) != '\\' || p + 1 >= end) {
+                int run = p + 1;
+                while (run < end && text.charAt(run) != '\\') run++;
+                sb.append(text.subSequence(p, run).toString());
+                p = run;
+                continue;
+            }
+            char e = text.charAt(p + 1);
+            p += 2;
+            switch (e) {
+                case 'n': sb.append('\n'); break;
+                case 't': sb.append('\t'); break;
+                case 'r': sb.append('\r'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'v': sb.append((char) 0x0B); break;
+                case '0': sb.append((char) 0); break;
+                case '\r':
+                case '\n':
+                    break; // 行连接
+                case 'x':
+                    p = appendHex(text, p, Math.min(end, p + 2), sb);
+                    break;
+                case 'u':
+                    if (p < end && text.charAt(p) == '{') {
+                        int close = p + 1;
+                        while (close < end && text.charAt(close) != '}') close++;
+                        appendHex(text, p + 1, close, sb);
+                        p = Math.min(end, close + 1);
+                    } else {
+                        p = appendHex(text, p, Math.min(end, p + 4), sb);
+                    }
+                    break;
+                default:
+                    sb.append(e);
+                    break;
+            }
+        }
+        return sb;
+    }
+
+    private static int appendHex(CharSequence text, int start, int end, StringBuilder sb) {
+        int value = 0;
+        int p = start;
+        for (; p < end; p++) {
+            int digit = Character.digit(text.charAt(p), 16);
+            if (digit < 0) break;
+            value = value * 16 + digit;
+        }
+        if (p > start && Character.isValidCodePoint(value)) {
+            sb.appendCodePoint(value);
+        }
+        return p;
+    }
+
+    // 记录字面量前的调用上下文 name( ，把字面量内容交给链接匹配
+    static class LinkTokenSink implements TokenSink {
+        private final LinkScanner.CandidateSink sink;
+        private int previousType;
+        private boolean previousIsLinkCallee;
+        private boolean inLinkCall;
+
+        LinkTokenSink(LinkScanner.CandidateSink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void token(int type, CharSequence text, int start, int end) {
+            switch (type) {
+                case STRING:
+                case TEMPLATE:
+                    if (end > start) {
+                        LinkScanner.scanLiteral(unescape(text, start, end), inLinkCall, sink);
+                    }
+                    inLinkCall = false;
+                    break;
+                case IDENTIFIER:
+                    previousIsLinkCallee = matchesAny(text, start, end, LINK_CALLEES);
+                    inLinkCall = false;
+                    break;
+                case PUNCTUATOR:
+                    inLinkCall = previousType == IDENTIFIER && previousIsLinkCallee
+                            && end - start == 1 && text.charAt(start) == '(';
+                    break;
+                default:
+                    inLinkCall = false;
+                    break;
+            }
+            previousType = type;
+        }
+    }
+}
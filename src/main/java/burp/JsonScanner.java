@@ -0,0 +1,210 @@
+package burp;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+// JSON响应的流式扫描：逐字符跳过结构和字符串，不构建对象树。
+// url/href/next 等键下的值以及 _links/links 容器内的值按链接处理，保留查询参数；
+// 其余字符串只有包含'/'时才进一步检查，数字、普通文本等值几乎没有额外开销
+final class JsonScanner {
+
+    private static final int MAX_VALUE_LENGTH = 4096;
+    private static final int MAX_KEY_LENGTH = 64;
+
+    // 值即为链接的键（忽略大小写），以及以这些后缀结尾的键：html_url、nextPageUrl、redirect_uri
+    private static final String[] LINK_KEYS = {
+            "next", "prev", "previous", "first", "last", "self", "src", "endpoint", "path", "location", "@id", "$ref"
+    };
+    private static final String[] LINK_KEY_SUFFIXES = {"url", "uri", "href", "link"};
+    // HAL 和 JSON:API 的链接容器，其中的所有字符串值都是链接
+    private static final String[] LINK_CONTAINERS = {"_links", "links"};
+
+    private static final AtomicLong documents = new AtomicLong();
+    private static final AtomicLong scannedStrings = new AtomicLong();
+    private static final AtomicLong linkValues = new AtomicLong();
+
+    private JsonScanner() {
+    }
+
+    // 处理起始位置位于[from, to)内的字符串，返回停止位置
+    static int scanLinks(CharSequence text, int from, int to, LinkScanner.CandidateSink sink) {
+        documents.incrementAndGet();
+        int length = text.length();
+        to = Math.min(to, length);
+
+        // 外层的键分类和链接容器状态，对象/数组结束后恢复
+        int[] stack = new int[32];
+        int depth = 0;
+        boolean inContainer = false;
+        int keyKind = 0; // 0: 普通键, 1: 链接键, 2: 链接容器键
+        long strings = 0;
+
+        int i = Math.max(0, from);
+        while (i < to) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                // 找到字符串结尾，同时记录是否有转义和'/'
+                int start = i + 1;
+                int p = start;
+                boolean escaped = false;
+                boolean slash = false;
+                while (p < length) {
+                    char d = text.charAt(p);
+                    if (d == '"') break;
+                    if (d == '\\') {
+                        escaped = true;
+                        p += 2;
+                        continue;
+                    }
+                    if (d == '/') slash = true;
+                    p++;
+                }
+                int end = Math.min(p, length);
+                i = end + 1;
+                strings++;
+
+                int next = i;
+                while (next < length && isWhitespace(text.charAt(next))) next++;
+                if (next < length && text.charAt(next) == ':') {
+                    keyKind = classifyKey(text, start, end);
+                    i = next + 1;
+                } else {
+                    if (keyKind == 1 || inContainer) {
+                        linkValue(text, start, end, escaped, sink);
+                    } else if (slash || escaped) {
+                        otherValue(text, start, end, escaped, sink);
+                    }
+                }
+            } else if (c == '{' || c == '[') {
+                if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+                stack[depth++] = keyKind | (inContainer ? 4 : 0);
+                if (keyKind == 2) inContainer = true;
+                // 数组元素仍属于数组所在的键，对象内由各自的键决定
+                if (c == '{') keyKind = 0;
+                i++;
+            } else if (c == '}' || c == ']') {
+                if (depth > 0) {
+                    int saved = stack[--depth];
+                    keyKind = saved & 3;
+                    inContainer = (saved & 4) != 0;
+                }
+                i++;
+            } else {
+                i++;
+            }
+        }
+        scannedStrings.addAndGet(strings);
+        return i;
+    }
+
+    private static int classifyKey(CharSequence text, int start, int end) {
+        int length = end - start;
+        if (length == 0 || length > MAX_KEY_LENGTH) return 0;
+        for (String key : LINK_CONTAINERS) {
+            if (equalsIgnoreCase(text, start, end, key)) return 2;
+        }
+        for (String key : LINK_KEYS) {
+            if (equalsIgnoreCase(text, start, end, key)) return 1;
+        }
+        for (String suffix : LINK_KEY_SUFFIXES) {
+            if (length >= suffix.length() && equalsIgnoreCase(text, end - suffix.length(), end, suffix)) return 1;
+        }
+        return 0;
+    }
+
+    // 链接键下的值：完整URL或路径，保留 ? 和 & 之后的参数
+    private static void linkValue(CharSequence text, int start, int end, boolean escaped, LinkScanner.CandidateSink sink) {
+        if (end <= start || end - start > MAX_VALUE_LENGTH) return;
+        CharSequence value = escaped ? JsLexer.unescape(text, start, end) : text.subSequence(start, end);
+        if (value.length() == 0) return;
+        if (containsWhitespace(value)) {
+            // 不是单个URL的文本，只提取其中嵌入的链接
+            LinkScanner.scan(value, 0, value.length(), 0, sink);
+            return;
+        }
+        if (isFullUrl(value)) {
+            linkValues.incrementAndGet();
+            sink.accept(value.toString(), true);
+        } else if (value.charAt(0) == '/' || startsWith(value, "./") || startsWith(value, "../")) {
+            linkValues.incrementAndGet();
+            sink.accept(value.toString(), false);
+        }
+    }
+
+    // 其他字符串值：整个值是URL或路径时保留参数，否则只提取其中嵌入的链接
+    private static void otherValue(CharSequence text, int start, int end, boolean escaped, LinkScanner.CandidateSink sink) {
+        if (end <= start) return;
+        if (end - start > MAX_VALUE_LENGTH) {
+            // 内嵌的HTML片段等长文本直接在原文上扫描
+            LinkScanner.scan(text, start, end, 0, sink);
+            return;
+        }
+        CharSequence value = escaped ? JsLexer.unescape(text, start, end) : text.subSequence(start, end);
+        int length = value.length();
+        if (length == 0) return;
+
+        if (!containsWhitespace(value)) {
+            if (isFullUrl(value)) {
+                linkValues.incrementAndGet();
+                sink.accept(value.toString(), true);
+                return;
+            }
+            int query = indexOf(value, '?');
+            int pathEnd = query < 0 ? length : query;
+            if (value.charAt(0) == '/' && LinkScanner.isLinkShaped(value, 0, pathEnd)) {
+                linkValues.incrementAndGet();
+                sink.accept(value.toString(), false);
+                return;
+            }
+        }
+        LinkScanner.scanLiteral(value, false, sink);
+    }
+
+    private static boolean isFullUrl(CharSequence value) {
+        return startsWithIgnoreCase(value, "http://") || startsWithIgnoreCase(value, "https://");
+    }
+
+    private static boolean containsWhitespace(CharSequence value) {
+        for (int p = 0; p < value.length(); p++) {
+            if (isWhitespace(value.charAt(p))) return true;
+        }
+        return false;
+    }
+
+    private static int indexOf(CharSequence value, char c) {
+        for (int p = 0; p < value.length(); p++) {
+            if (value.charAt(p) == c) return p;
+        }
+        return -1;
+    }
+
+    private static boolean startsWith(CharSequence value, String prefix) {
+        if (value.length() < prefix.length()) return false;
+        for (int k = 0; k < prefix.length(); k++) {
+            if (value.charAt(k) != prefix.charAt(k)) return false;
+        }
+        return true;
+    }
+
+    private static boolean startsWithIgnoreCase(CharSequence value, String prefix) {
+        return value.length() >= prefix.length() && equalsIgnoreCase(value, 0, prefix.length(), prefix);
+    }
+
+    // expected为小写
+    private static boolean equalsIgnoreCase(CharSequence text, int start, int end, String expected) {
+        if (end - start != expected.length()) return false;
+        for (int k = 0; k < expected.length(); k++) {
+            if (Character.toLowerCase(text.charAt(start + k)) != expected.charAt(k)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    static String getStatistics() {
+        return String.format("【JSON】 文档: %d, 字符串: %d, 链接值: %d\n",
+                documents.get(), scannedStrings.get(), linkValues.get());
+    }
+}
@@ -0,0 +1,312 @@
+package burp;
+
+// 单次遍历的链接扫描器：在一次扫描中完成完整URL、引号内相对路径/API路径、
+// import()/require()/fetch()/open()调用、HTML属性以及CSS url()的提取
+final class LinkScanner {
+
+    // 候选链接接收器，absolute为true表示已是完整URL，无需再解析
+    interface CandidateSink {
+        void accept(String value, boolean absolute);
+    }
+
+    // 扫描起始位置位于[from, to)内的候选，返回停止位置
+    interface RangeScanner {
+        int scan(CharSequence text, int from, int to, CandidateSink sink);
+    }
+
+    static final int MODE_SCRIPT = 1; // 识别 import()/require()/fetch()/open()
+    static final int MODE_CSS = 2;    // 识别 url()
+
+    // 路径字符: [a-zA-Z0-9_\-.:/]，主机字符: [a-zA-Z0-9_\-.:]
+    private static final boolean[] PATH_CHARS = new boolean[128];
+    private static final boolean[] HOST_CHARS = new boolean[128];
+
+    private static final String[] RESOURCE_EXTENSIONS = {
+            "js", "css", "html", "htm", "json", "woff", "woff2", "ttf", "eot",
+            "png", "jpg", "jpeg", "gif", "svg", "ico", "webp"
+    };
+
+    private static final String[] LINK_ATTRIBUTES = {"src", "href", "data-src", "data-href"};
+
+    // 字面量模式下排除的常见误报：MIME类型和HTTP方法
+    private static final String[] MIME_TOP_LEVEL_TYPES = {
+            "text/", "application/", "image/", "audio/", "video/", "font/", "multipart/", "message/"
+    };
+    private static final String[] HTTP_METHODS = {
+            "GET", "POST", "PUT", "DELETE", "PATCH", "HEAD", "OPTIONS"
+    };
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) HOST_CHARS[c] = true;
+        for (char c = 'A'; c <= 'Z'; c++) HOST_CHARS[c] = true;
+        for (char c = '0'; c <= '9'; c++) HOST_CHARS[c] = true;
+        HOST_CHARS['_'] = true;
+        HOST_CHARS['-'] = true;
+        HOST_CHARS['.'] = true;
+        HOST_CHARS[':'] = true;
+        System.arraycopy(HOST_CHARS, 0, PATH_CHARS, 0, 128);
+        PATH_CHARS['/'] = true;
+    }
+
+    private LinkScanner() {
+    }
+
+    static int modeFor(String mimeType) {
+        int mode = 0;
+        if (mimeType.contains("javascript") || mimeType.contains("html")) mode |= MODE_SCRIPT;
+        if (mimeType.contains("css")) mode |= MODE_CSS;
+        return mode;
+    }
+
+    static RangeScanner forMode(int mode) {
+        return (text, from, to, sink) -> scan(text, from, to, mode, sink);
+    }
+
+    // 扫描起始位置位于[from, to)内的候选，匹配内容可以越过to向后读取。
+    // 返回实际停止的位置，完整URL跨越to时会大于to，分段扫描时下一段应从该位置继续
+    static int scan(CharSequence text, int from, int to, int mode, CandidateSink sink) {
+        int length = text.length();
+        to = Math.min(to, length);
+
+        int i = Math.max(0, from);
+        for (; i < to; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case 'h':
+                case 'H': {
+                    int end = matchFullUrl(text, i, length);
+                    if (end > 0) {
+                        sink.accept(text.subSequence(i, end).toString(), true);
+                        i = end - 1;
+                    }
+                    break;
+                }
+                case '"':
+                case '\'':
+                    scanQuoted(text, i, length, mode, sink);
+                    break;
+                case '(':
+                    if ((mode & MODE_CSS) != 0) {
+                        scanCssUrl(text, i, length, sink);
+                    }
+                    break;
+                case ' ':
+                case '\t':
+                case '\n':
+                case '\r':
+                case '\f':
+                case 0x0B:
+                    // 只在空白串的最后一个字符处尝试匹配属性
+                    if (i + 1 < length && !isWhitespace(text.charAt(i + 1))) {
+                        scanAttribute(text, i + 1, length, sink);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return i;
+    }
+
+    // JS词法模式下单个字符串字面量的匹配：整个字面量是路径时按资源/API/调用参数判断，
+    // 字面量内部嵌套的完整URL和HTML属性仍按通用规则扫描
+    static void scanLiteral(CharSequence value, boolean callArgument, CandidateSink sink) {
+        int length = value.length();
+        // 带资源扩展名的 "image/logo.png" 是路径，MIME类型和方法名的过滤只用于没有扩展名的字面量
+        if (skip(value, 0, length, PATH_CHARS) == length
+                && (hasResourceExtension(value, 0, length)
+                || (!isMimeTypeOrMethod(value, length) && (callArgument || isApiShape(value, 0, length))))) {
+            sink.accept(value.toString(), false);
+        }
+        scan(value, 0, length, 0, sink);
+    }
+
+    // [start, end)全部是路径字符，且带资源扩展名或具有API路径的形状
+    static boolean isLinkShaped(CharSequence text, int start, int end) {
+        return end > start && skip(text, start, end, PATH_CHARS) == end
+                && (hasResourceExtension(text, start, end) || isApiShape(text, start, end));
+    }
+
+    // "text/html"、"application/json" 这类MIME类型，以及 open("GET", ...) 中的方法名
+    private static boolean isMimeTypeOrMethod(CharSequence value, int length) {
+        for (String method : HTTP_METHODS) {
+            if (method.length() == length && method.contentEquals(value)) return true;
+        }
+        int slashes = 0;
+        for (int p = 0; p < length; p++) {
+            if (value.charAt(p) == '/') slashes++;
+        }
+        if (slashes != 1) return false;
+        for (String type : MIME_TOP_LEVEL_TYPES) {
+            if (length > type.length() && regionMatchesIgnoreCase(value, 0, type)) {
+                // 子类型带点的只有 vnd.、prs. 这类注册树，"video/intro.mp4" 是文件路径
+                int subtype = type.length();
+                return indexOf(value, '.', subtype, length) < 0 || regionMatchesIgnoreCase(value, subtype, "vnd.")
+                        || regionMatchesIgnoreCase(value, subtype, "prs.");
+            }
+        }
+        return false;
+    }
+
+    // https?://host(/segment)*，返回结束位置，未匹配返回-1
+    private static int matchFullUrl(CharSequence text, int start, int length) {
+        int p = start;
+        if (!regionMatchesIgnoreCase(text, p, "http")) return -1;
+        p += 4;
+        if (p < length && (text.charAt(p) == 's' || text.charAt(p) == 'S')) p++;
+        if (!regionMatchesIgnoreCase(text, p, "://")) return -1;
+        p += 3;
+
+        int hostEnd = skip(text, p, length, HOST_CHARS);
+        if (hostEnd == p) return -1;
+        p = hostEnd;
+
+        while (p < length && text.charAt(p) == '/') {
+            int segmentEnd = skip(text, p + 1, length, HOST_CHARS);
+            if (segmentEnd == p + 1) break;
+            p = segmentEnd;
+        }
+        return p;
+    }
+
+    private static void scanQuoted(CharSequence text, int quote, int length, int mode, CandidateSink sink) {
+        int start = quote + 1;
+        int end = skip(text, start, length, PATH_CHARS);
+        if (end == start || end >= length) return;
+
+        char closing = text.charAt(end);
+        if (closing != '"' && closing != '\'') return;
+
+        boolean matched = hasResourceExtension(text, start, end) || isApiShape(text, start, end);
+        if (!matched && (mode & MODE_SCRIPT) != 0) {
+            matched = isCallArgument(text, quote, end, length);
+        }
+        if (matched) {
+            sink.accept(text.subSequence(start, end).toString(), false);
+        }
+    }
+
+    // 引号内以资源扩展名结尾，且扩展名前至少有一个字符
+    private static boolean hasResourceExtension(CharSequence text, int start, int end) {
+        for (String ext : RESOURCE_EXTENSIONS) {
+            int dot = end - ext.length() - 1;
+            if (dot > start && text.charAt(dot) == '.' && regionMatchesIgnoreCase(text, dot + 1, ext)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 至少两个非空路径段，可选的前导'/'，不能有空段或结尾'/'
+    private static boolean isApiShape(CharSequence text, int start, int end) {
+        int p = text.charAt(start) == '/' ? start + 1 : start;
+        int segments = 0;
+        int segmentLength = 0;
+        for (; p < end; p++) {
+            if (text.charAt(p) == '/') {
+                if (segmentLength == 0) return false;
+                segments++;
+                segmentLength = 0;
+            } else {
+                segmentLength++;
+            }
+        }
+        if (segmentLength == 0) return false;
+        return segments + 1 >= 2;
+    }
+
+    // import('x') / require('x') / fetch('x' / open('x'
+    private static boolean isCallArgument(CharSequence text, int quote, int end, int length) {
+        // fetch/open 允许括号与引号之间有空白
+        int p = skipWhitespaceBackward(text, quote - 1);
+        if (p < 0 || text.charAt(p) != '(') return false;
+
+        boolean directlyQuoted = p == quote - 1;
+        boolean closedByParen = end + 1 < length && text.charAt(end + 1) == ')';
+        if (directlyQuoted && closedByParen
+                && (endsWithIgnoreCase(text, p, "import") || endsWithIgnoreCase(text, p, "require"))) {
+            return true;
+        }
+
+        int nameEnd = skipWhitespaceBackward(text, p - 1) + 1;
+        return endsWithIgnoreCase(text, nameEnd, "fetch") || endsWithIgnoreCase(text, nameEnd, "open");
+    }
+
+    // \s+(src|href|data-src|data-href)\s*=\s*([路径字符]+)
+    private static void scanAttribute(CharSequence text, int nameStart, int length, CandidateSink sink) {
+        for (String attribute : LINK_ATTRIBUTES) {
+            if (!regionMatchesIgnoreCase(text, nameStart, attribute)) continue;
+
+            int p = skipWhitespace(text, nameStart + attribute.length(), length);
+            if (p >= length || text.charAt(p) != '=') continue;
+            p = skipWhitespace(text, p + 1, length);
+
+            int end = skip(text, p, length, PATH_CHARS);
+            if (end > p) {
+                sink.accept(text.subSequence(p, end).toString(), false);
+                return;
+            }
+        }
+    }
+
+    // url\(\s*['"]?([路径字符]+)['"]?\s*\)
+    private static void scanCssUrl(CharSequence text, int paren, int length, CandidateSink sink) {
+        if (!endsWithIgnoreCase(text, paren, "url")) return;
+
+        int p = skipWhitespace(text, paren + 1, length);
+        if (p < length && (text.charAt(p) == '"' || text.charAt(p) == '\'')) p++;
+
+        int end = skip(text, p, length, PATH_CHARS);
+        if (end == p) return;
+
+        int q = end;
+        if (q < length && (text.charAt(q) == '"' || text.charAt(q) == '\'')) q++;
+        q = skipWhitespace(text, q, length);
+        if (q < length && text.charAt(q) == ')') {
+            sink.accept(text.subSequence(p, end).toString(), false);
+        }
+    }
+
+    private static int skip(CharSequence text, int p, int length, boolean[] table) {
+        while (p < length) {
+            char c = text.charAt(p);
+            if (c >= 128 || !table[c]) break;
+            p++;
+        }
+        return p;
+    }
+
+    private static int indexOf(CharSequence text, char c, int p, int length) {
+        for (; p < length; p++) {
+            if (text.charAt(p) == c) return p;
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(CharSequence text, int p, int length) {
+        while (p < length && isWhitespace(text.charAt(p))) p++;
+        return p;
+    }
+
+    private static int skipWhitespaceBackward(CharSequence text, int p) {
+        while (p >= 0 && isWhitespace(text.charAt(p))) p--;
+        return p;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == 0x0B;
+    }
+
+    private static boolean regionMatchesIgnoreCase(CharSequence text, int offset, String expected) {
+        if (offset < 0 || offset + expected.length() > text.length()) return false;
+        for (int k = 0; k < expected.length(); k++) {
+            if (Character.toLowerCase(text.charAt(offset + k)) != expected.charAt(k)) return false;
+        }
+        return true;
+    }
+
+    // text在end之前（不含end）的内容是否以expected结尾
+    private static boolean endsWithIgnoreCase(CharSequence text, int end, String expected) {
+        return regionMatchesIgnoreCase(text, end - expected.length(), expected);
+    }
+}
@@ -0,0 +1,195 @@
+package burp;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 前端框架构建清单的专用提取，按固定路径识别，一次词法扫描列出应用的全部页面和chunk：
+//   Next.js  /_next/static/<buildId>/_buildManifest.js、_ssgManifest.js
+//   Nuxt     /_nuxt/manifest*.js(on)、/_nuxt/builds/meta/*.json、/_nuxt/builds/latest.json
+//   Vite     manifest.json、/.vite/manifest.json
+// JSON与JS共用JsLexer，字符串按所属的键分类为路由或静态资源
+final class ManifestExtractor implements JsLexer.TokenSink {
+
+    enum Kind { NEXT, NUXT, VITE }
+
+    private static final int MAX_ENTRIES = 20000;
+    private static final String NEXT_DIR = "/_next/";
+    private static final String NUXT_DIR = "/_nuxt/";
+    private static final String VITE_DIR = "/.vite/";
+
+    // Nuxt 2 的客户端清单与 Vite 清单中指向构建产物的键
+    private static final String[] ASSET_KEYS = {"file", "css", "assets", "all", "initial", "async"};
+    private static final String[] ROUTE_KEYS = {"prerendered"};
+
+    private static final AtomicLong parsedManifests = new AtomicLong();
+    private static final AtomicLong emittedRoutes = new AtomicLong();
+    private static final AtomicLong emittedAssets = new AtomicLong();
+
+    private final Kind kind;
+    private final String appBase;
+    private String assetBase;
+    private final LinkScanner.CandidateSink sink;
+    private final Set<String> routes = new LinkedHashSet<>();
+    private final Set<String> assets = new LinkedHashSet<>();
+
+    // 对象/数组嵌套中各层所属的键
+    private final List<String> keyStack = new ArrayList<>();
+    private String currentKey;
+    private String pendingString;
+
+    private ManifestExtractor(Kind kind, String appBase, String assetBase, LinkScanner.CandidateSink sink) {
+        this.kind = kind;
+        this.appBase = appBase;
+        this.assetBase = assetBase;
+        this.sink = sink;
+    }
+
+    static Kind kindFor(String path) {
+        if (path == null) return null;
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        if (path.contains(NEXT_DIR) && (name.equals("_buildManifest.js") || name.equals("_ssgManifest.js"))) {
+            return Kind.NEXT;
+        }
+        if (path.contains(NUXT_DIR) && ((name.startsWith("manifest") && (name.endsWith(".js") || name.endsWith(".json")))
+                || (path.contains("/builds/") && name.endsWith(".json")))) {
+            return Kind.NUXT;
+        }
+        if (name.equals("manifest.json") || name.equals("ssr-manifest.json")) {
+            return Kind.VITE;
+        }
+        return null;
+    }
+
+    // 不是构建清单时返回null；同名文件不是构建清单（例如PWA的manifest.json）时交给fallback扫描
+    static LinkScanner.RangeScanner scannerFor(String path, LinkScanner.RangeScanner fallback) {
+        Kind kind = kindFor(path);
+        if (kind == null) return null;
+
+        String appBase;
+        String assetBase;
+        switch (kind) {
+            case NEXT:
+                appBase = path.substring(0, path.indexOf(NEXT_DIR) + 1);
+                assetBase = appBase + NEXT_DIR.substring(1);
+                break;
+            case NUXT:
+                appBase = path.substring(0, path.indexOf(NUXT_DIR) + 1);
+                assetBase = appBase + NUXT_DIR.substring(1);
+                break;
+            default:
+                // Vite 清单中的路径相对于构建输出目录，.vite/ 位于其中
+                int vite = path.indexOf(VITE_DIR);
+                appBase = vite >= 0 ? path.substring(0, vite + 1) : path.substring(0, path.lastIndexOf('/') + 1);
+                assetBase = appBase;
+                break;
+        }
+
+        return (text, from, to, sink) -> {
+            ManifestExtractor extractor = new ManifestExtractor(kind, appBase, assetBase, sink);
+            int stop = new JsLexer().lex(text, from, to, extractor);
+            if (!extractor.finish()) {
+                return fallback.scan(text, from, to, sink);
+            }
+            return stop;
+        };
+    }
+
+    @Override
+    public void token(int type, CharSequence text, int start, int end) {
+        boolean single = end - start == 1;
+        char c = text.charAt(start);
+
+        if (type == JsLexer.PUNCTUATOR && single && c == ':' && pendingString != null) {
+            currentKey = pendingString;
+            pendingString = null;
+            if (kind == Kind.NEXT) route(currentKey);
+            return;
+        }
+        flushPending();
+
+        if (type == JsLexer.STRING) {
+            pendingString = JsLexer.unescape(text, start, end).toString();
+        } else if (type == JsLexer.PUNCTUATOR && single) {
+            if (c == '{' || c == '[') {
+                keyStack.add(currentKey);
+                if (c == '{') currentKey = null;
+            } else if ((c == '}' || c == ']') && !keyStack.isEmpty()) {
+                currentKey = keyStack.remove(keyStack.size() - 1);
+            }
+        }
+    }
+
+    // 上一个字符串之后不是':'，说明它是一个值
+    private void flushPending() {
+        if (pendingString == null) return;
+        String value = pendingString;
+        pendingString = null;
+
+        if (kind == Kind.NEXT) {
+            // 页面列表中的路由，以及 static/chunks/... 形式的chunk（包括清单函数的实参）
+            if (value.startsWith("static/")) {
+                asset(value);
+            } else {
+                route(value);
+            }
+            return;
+        }
+
+        if ("publicPath".equals(currentKey)) {
+            if (value.startsWith("/")) assetBase = value.endsWith("/") ? value : value + "/";
+        } else if (isAny(currentKey, ASSET_KEYS)) {
+            asset(value);
+        } else if (isAny(currentKey, ROUTE_KEYS)) {
+            route(value);
+        }
+    }
+
+    private void route(String value) {
+        // 跳过 /_app 等内部页面和 /posts/[id] 等动态路由
+        if (!value.startsWith("/") || value.startsWith("/_") || value.indexOf('[') >= 0) return;
+        if (routes.size() < MAX_ENTRIES) routes.add(value);
+    }
+
+    private void asset(String value) {
+        if (value.isEmpty() || value.indexOf(' ') >= 0) return;
+        if (assets.size() < MAX_ENTRIES) assets.add(value);
+    }
+
+    private static boolean isAny(String key, String[] keys) {
+        if (key == null) return false;
+        for (String k : keys) {
+            if (k.equals(key)) return true;
+        }
+        return false;
+    }
+
+    // 清单扫描完后统一生成，Nuxt 2 的publicPath可能出现在资源列表之后
+    private boolean finish() {
+        flushPending();
+        if (routes.isEmpty() && assets.isEmpty()) return false;
+        parsedManifests.incrementAndGet();
+
+        String appRoot = appBase.endsWith("/") ? appBase.substring(0, appBase.length() - 1) : appBase;
+        for (String route : routes) {
+            sink.accept(appRoot + route, false);
+        }
+        for (String asset : assets) {
+            if (asset.startsWith("http://") || asset.startsWith("https://")) {
+                sink.accept(asset, true);
+            } else {
+                sink.accept(asset.startsWith("/") ? asset : assetBase + asset, false);
+            }
+        }
+        emittedRoutes.addAndGet(routes.size());
+        emittedAssets.addAndGet(assets.size());
+        return true;
+    }
+
+    static String getStatistics() {
+        return String.format("【构建清单】 清单: %d 个, 路由: %d, 资源: %d\n",
+                parsedManifests.get(), emittedRoutes.get(), emittedAssets.get());
+    }
+}
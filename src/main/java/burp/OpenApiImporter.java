@@ -0,0 +1,314 @@
+package burp;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+// OpenAPI 3 / Swagger 2 文档导入：JSON按JsLexer的token流、YAML按行和缩进增量解析，
+// 只跟踪键路径，不构建文档树。paths下的每个路径+方法登记为端点，
+// 按 servers（OpenAPI 3）或 schemes/host/basePath（Swagger 2）解析为完整URL
+final class OpenApiImporter {
+
+    private static final int MAX_ENDPOINTS = 20000;
+    private static final int MAX_SERVERS = 4;
+    private static final int SNIFF_CHARS = 2048;
+
+    private static final String[] SPEC_FILE_NAMES = {
+            "swagger.json", "swagger.yaml", "swagger.yml", "openapi.json", "openapi.yaml", "openapi.yml"
+    };
+    private static final String[] HTTP_METHODS = {"get", "put", "post", "delete", "options", "head", "patch", "trace"};
+
+    private static final AtomicLong importedSpecs = new AtomicLong();
+    private static final AtomicLong importedEndpoints = new AtomicLong();
+
+    // 解析过程中收集的内容，结束后统一解析URL，servers可能出现在paths之后
+    private final Map<String, Set<String>> pathMethods = new LinkedHashMap<>();
+    private final List<String> servers = new ArrayList<>();
+    private final List<String> schemes = new ArrayList<>();
+    private String host;
+    private String basePath;
+    private boolean versionSeen;
+
+    private OpenApiImporter() {
+    }
+
+    // 按路径或内容开头判断是否可能是规范文档，只需要解码响应头部
+    static boolean isCandidate(String path, String mimeType, CharSequence head) {
+        if (path != null) {
+            String lower = path.toLowerCase();
+            String name = lower.substring(lower.lastIndexOf('/') + 1);
+            for (String specName : SPEC_FILE_NAMES) {
+                if (name.equals(specName)) return true;
+            }
+            if (lower.endsWith("/api-docs") || lower.contains("/api-docs/")) return true;
+        }
+        if (!mimeType.contains("json") && !mimeType.contains("yaml") && !mimeType.contains("text")) return false;
+
+        String sniff = head.subSequence(0, Math.min(head.length(), SNIFF_CHARS)).toString();
+        return sniff.contains("\"swagger\"") || sniff.contains("\"openapi\"")
+                || sniff.startsWith("swagger:") || sniff.startsWith("openapi:")
+                || sniff.contains("\nswagger:") || sniff.contains("\nopenapi:");
+    }
+
+    // 返回 端点URL -> 方法集合；不是规范文档或没有路径时返回null
+    static Map<String, Set<String>> parse(CharSequence text, String specUrl) {
+        OpenApiImporter importer = new OpenApiImporter();
+        int first = 0;
+        while (first < text.length() && Character.isWhitespace(text.charAt(first))) first++;
+        if (first < text.length() && text.charAt(first) == '{') {
+            importer.parseJson(text);
+        } else {
+            importer.parseYaml(text);
+        }
+        if (!importer.versionSeen || importer.pathMethods.isEmpty()) return null;
+
+        Map<String, Set<String>> endpoints = importer.resolve(specUrl);
+        importedSpecs.incrementAndGet();
+        importedEndpoints.addAndGet(endpoints.size());
+        return endpoints;
+    }
+
+    // 键路径只包含对象的键，数组层不计入，与YAML的列表项保持一致
+    private void key(List<String> keyPath) {
+        if (keyPath.size() == 3 && keyPath.get(0).equals("paths")) {
+            String method = keyPath.get(2).toLowerCase();
+            for (String m : HTTP_METHODS) {
+                if (m.equals(method)) {
+                    addEndpoint(keyPath.get(1), method.toUpperCase());
+                    return;
+                }
+            }
+        }
+    }
+
+    private void value(List<String> keyPath, String value) {
+        if (keyPath.size() == 1) {
+            switch (keyPath.get(0)) {
+                case "swagger":
+                case "openapi":
+                    versionSeen = true;
+                    break;
+                case "host":
+                    host = value;
+                    break;
+                case "basePath":
+                    basePath = value;
+                    break;
+                case "schemes":
+                    schemes.add(value.toLowerCase());
+                    break;
+                default:
+                    break;
+            }
+        } else if (keyPath.size() == 2 && keyPath.get(0).equals("servers") && keyPath.get(1).equals("url")) {
+            if (servers.size() < MAX_SERVERS && !servers.contains(value)) servers.add(value);
+        }
+    }
+
+    private void addEndpoint(String path, String method) {
+        if (!path.startsWith("/")) return;
+        Set<String> methods = pathMethods.get(path);
+        if (methods == null) {
+            if (pathMethods.size() >= MAX_ENDPOINTS) return;
+            methods = new TreeSet<>();
+            pathMethods.put(path, methods);
+        }
+        methods.add(method);
+    }
+
+    private void parseJson(CharSequence text) {
+        // 每层容器: 是否为对象，以及对象当前的键
+        List<Boolean> isObject = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        List<String> keyPath = new ArrayList<>();
+        String[] pendingString = new String[1];
+
+        new JsLexer().lex(text, 0, text.length(), (type, tokenText, start, end) -> {
+            boolean single = end - start == 1;
+            char c = tokenText.charAt(start);
+            if (type == JsLexer.PUNCTUATOR && single && c == ':' && pendingString[0] != null) {
+                int depth = keys.size();
+                if (depth > 0 && isObject.get(depth - 1)) {
+                    keys.set(depth - 1, pendingString[0]);
+                    keyPath(isObject, keys, keyPath);
+                    key(keyPath);
+                }
+                pendingString[0] = null;
+                return;
+            }
+            if (pendingString[0] != null) {
+                keyPath(isObject, keys, keyPath);
+                value(keyPath, pendingString[0]);
+                pendingString[0] = null;
+            }
+
+            if (type == JsLexer.STRING) {
+                pendingString[0] = JsLexer.unescape(tokenText, start, end).toString();
+            } else if (type == JsLexer.PUNCTUATOR && single && (c == '{' || c == '[')) {
+                isObject.add(c == '{');
+                keys.add(null);
+            } else if (type == JsLexer.PUNCTUATOR && single && (c == '}' || c == ']') && !keys.isEmpty()) {
+                isObject.remove(isObject.size() - 1);
+                keys.remove(keys.size() - 1);
+            }
+        });
+    }
+
+    private static void keyPath(List<Boolean> isObject, List<String> keys, List<String> keyPath) {
+        keyPath.clear();
+        for (int d = 0; d < keys.size(); d++) {
+            if (isObject.get(d) && keys.get(d) != null) keyPath.add(keys.get(d));
+        }
+    }
+
+    private void parseYaml(CharSequence text) {
+        // 每层: 缩进和键
+        List<Integer> indents = new ArrayList<>();
+        List<String> keyPath = new ArrayList<>();
+        int blockScalarIndent = -1;
+
+        int length = text.length();
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = lineStart;
+            while (lineEnd < length && text.charAt(lineEnd) != '\n') lineEnd++;
+            String line = text.subSequence(lineStart, lineEnd).toString();
+            lineStart = lineEnd + 1;
+
+            int indent = 0;
+            while (indent < line.length() && line.charAt(indent) == ' ') indent++;
+            String content = line.substring(indent).trim();
+            if (content.isEmpty() || content.startsWith("#")) continue;
+
+            // description: | 等多行文本的内容
+            if (blockScalarIndent >= 0) {
+                if (indent > blockScalarIndent) continue;
+                blockScalarIndent = -1;
+            }
+            if (content.equals("---") || content.equals("...")) continue;
+
+            // "- key: value" 的键缩进按 "- " 之后计算
+            boolean listItem = false;
+            while (content.startsWith("- ") || content.equals("-")) {
+                listItem = true;
+                int skip = content.equals("-") ? 1 : 2;
+                indent += skip;
+                String rest = content.substring(skip);
+                indent += rest.length() - rest.replaceAll("^ +", "").length();
+                content = rest.trim();
+            }
+            if (content.isEmpty()) continue;
+
+            while (!indents.isEmpty() && indents.get(indents.size() - 1) >= indent) {
+                indents.remove(indents.size() - 1);
+                keyPath.remove(keyPath.size() - 1);
+            }
+
+            int colon = keyColon(content);
+            if (colon < 0) {
+                // 列表中的标量，例如 schemes 下的 "- https"
+                if (listItem) value(keyPath, unquote(content));
+                continue;
+            }
+
+            String key = unquote(content.substring(0, colon).trim());
+            String value = content.substring(colon + 1).trim();
+            indents.add(indent);
+            keyPath.add(key);
+            key(keyPath);
+
+            if (value.startsWith("|") || value.startsWith(">")) {
+                blockScalarIndent = indent;
+            } else if (!value.isEmpty() && !value.startsWith("#") && !value.startsWith("{") && !value.startsWith("[")) {
+                value(keyPath, unquote(stripComment(value)));
+            }
+        }
+    }
+
+    // 键后面的':'（后跟空白或位于行尾），跳过引号内的内容
+    private static int keyColon(String content) {
+        char quote = 0;
+        for (int p = 0; p < content.length(); p++) {
+            char c = content.charAt(p);
+            if (quote != 0) {
+                if (c == quote) quote = 0;
+            } else if (c == '"' || c == '\'') {
+                if (p == 0) quote = c;
+            } else if (c == ':' && (p + 1 == content.length() || content.charAt(p + 1) == ' ')) {
+                return p;
+            }
+        }
+        return -1;
+    }
+
+    private static String stripComment(String value) {
+        if (value.startsWith("\"") || value.startsWith("'")) return value;
+        int hash = value.indexOf(" #");
+        return hash >= 0 ? value.substring(0, hash).trim() : value;
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2) {
+            char first = value.charAt(0);
+            if ((first == '"' || first == '\'') && value.charAt(value.length() - 1) == first) {
+                return value.substring(1, value.length() - 1);
+            }
+        }
+        return value;
+    }
+
+    private Map<String, Set<String>> resolve(String specUrl) {
+        List<String> bases = new ArrayList<>();
+        for (String server : servers) {
+            // 带 {变量} 的服务器地址无法直接访问
+            if (server.indexOf('{') >= 0) continue;
+            String base = resolveAgainst(specUrl, server);
+            if (base != null) bases.add(base);
+        }
+        if (bases.isEmpty()) {
+            String base = swaggerBase(specUrl);
+            if (base != null) bases.add(base);
+        }
+
+        Map<String, Set<String>> endpoints = new LinkedHashMap<>();
+        for (String base : bases) {
+            String root = base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
+            for (Map.Entry<String, Set<String>> entry : pathMethods.entrySet()) {
+                endpoints.computeIfAbsent(root + entry.getKey(), k -> new LinkedHashSet<>()).addAll(entry.getValue());
+            }
+        }
+        return endpoints;
+    }
+
+    // Swagger 2: scheme://host/basePath，缺省时使用文档所在的协议和主机
+    private String swaggerBase(String specUrl) {
+        try {
+            URI spec = URI.create(specUrl);
+            String scheme = schemes.contains(spec.getScheme()) || schemes.isEmpty() ? spec.getScheme() : schemes.get(0);
+            String authority = host != null && !host.isEmpty() ? host : spec.getRawAuthority();
+            String path = basePath != null ? basePath : "";
+            if (!path.isEmpty() && !path.startsWith("/")) path = "/" + path;
+            return scheme + "://" + authority + path;
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static String resolveAgainst(String specUrl, String server) {
+        try {
+            return URI.create(specUrl).resolve(server).toString();
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    static String getStatistics() {
+        return String.format("【OpenAPI】 导入文档: %d 个, 端点: %d\n", importedSpecs.get(), importedEndpoints.get());
+    }
+}
@@ -0,0 +1,207 @@
+package burp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 大型JS的分段并行扫描：在语句结束符之后切分，各段用独立的词法器在ForkJoinPool中并行扫描，
+// 结果按顺序合并。分段点是否真的位于代码中（而不是字符串、注释、正则或模板内）在合并时验证：
+// 前一段的词法器停止在分段点之后的第一个token之前，且不在模板的 ${...} 中。
+// 验证失败的段丢弃并行结果，由前一段的词法器接着顺序扫描。
+// 跨段的状态在合并时补上：webpack的chunk表达式和publicPath汇总到第一段，最后统一生成chunk地址；
+// 前一段的常量表继续折叠下一段开头仍在常量有效范围内的token。
+// 合并结果包含顺序扫描的全部候选，另外可能多出少量引用了前一段常量的拼接片段（下一段自己折叠时常量未知）
+final class ParallelJsScanner {
+
+    // 每段至少1M字符，更小的分段调度和合并开销超过收益
+    static final int MIN_SEGMENT_CHARS = 1024 * 1024;
+    // 从目标位置向后查找分段点的最大距离
+    private static final int BOUNDARY_SEARCH_CHARS = 64 * 1024;
+
+    private static final ForkJoinPool POOL = newPool(Runtime.getRuntime().availableProcessors());
+
+    private static final AtomicLong parallelBodies = new AtomicLong();
+    private static final AtomicLong parallelSegments = new AtomicLong();
+    private static final AtomicLong repairedSegments = new AtomicLong();
+
+    private ParallelJsScanner() {
+    }
+
+    // 一个分段的扫描，候选先记录下来，合并时再按顺序输出
+    private static final class Segment extends RecursiveAction implements LinkScanner.CandidateSink {
+        private static final long serialVersionUID = 1L;
+
+        private final CharSequence text;
+        private final int start;
+        private final int end;
+        private final List<String> values = new ArrayList<>();
+        private final List<Boolean> absolute = new ArrayList<>();
+        final GraphQlExtractor graphQl;
+        final JsLexer.LinkPass pass;
+        int stop;
+        DeadlineCharSequence.Exceeded aborted;
+
+        Segment(CharSequence text, int start, int end, boolean collectGraphQl) {
+            this.text = text;
+            this.start = start;
+            this.end = end;
+            this.graphQl = collectGraphQl ? new GraphQlExtractor() : null;
+            this.pass = new JsLexer.LinkPass(this, graphQl);
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                stop = pass.lex(text, start, end);
+            } catch (DeadlineCharSequence.Exceeded ex) {
+                aborted = ex;
+            }
+        }
+
+        @Override
+        public void accept(String value, boolean isAbsolute) {
+            values.add(value);
+            absolute.add(isAbsolute);
+        }
+
+        // 输出已记录的候选，之后记录的候选（第一段最后生成的chunk地址）可以再次输出
+        void flushInto(LinkScanner.CandidateSink sink, GraphQlExtractor target) {
+            for (int i = 0; i < values.size(); i++) {
+                sink.accept(values.get(i), absolute.get(i));
+            }
+            values.clear();
+            absolute.clear();
+            if (target != null) target.merge(graphQl);
+        }
+    }
+
+    static ForkJoinPool newPool(int parallelism) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        return new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            t.setName("APIFuzz-scan-" + threadIndex.incrementAndGet());
+            return t;
+        }, null, false);
+    }
+
+    // 卸载插件时停止扫描线程，否则每次重新加载都会留下一组线程并保留旧的类加载器
+    static void shutdown() {
+        POOL.shutdownNow();
+    }
+
+    static int scanLinks(CharSequence text, int from, int to, LinkScanner.CandidateSink sink, GraphQlExtractor graphQl) {
+        return scanLinks(text, from, to, sink, graphQl, POOL);
+    }
+
+    static int scanLinks(CharSequence text, int from, int to, LinkScanner.CandidateSink sink, GraphQlExtractor graphQl,
+                         ForkJoinPool pool) {
+        to = Math.min(to, text.length());
+        int[] bounds = boundaries(text, from, to, Math.min(pool.getParallelism(), (to - from) / MIN_SEGMENT_CHARS));
+        int count = bounds.length - 1;
+        if (count < 2) return JsLexer.scanLinks(text, from, to, sink, graphQl);
+
+        Segment[] segments = new Segment[count];
+        for (int k = 0; k < count; k++) {
+            segments[k] = new Segment(DeadlineCharSequence.fork(text), bounds[k], bounds[k + 1], graphQl != null);
+        }
+        for (Segment segment : segments) pool.execute(segment);
+        for (Segment segment : segments) segment.join();
+        parallelBodies.incrementAndGet();
+        parallelSegments.addAndGet(count);
+
+        Segment head = segments[0];
+        Segment current = head;
+        for (int k = 1; k < count; k++) {
+            abortIfNeeded(head, current, sink, graphQl);
+            if (current.pass.atTopLevel() && current.stop <= firstToken(text, bounds[k], to)) {
+                try {
+                    current.pass.carryConstants(text, bounds[k], bounds[k + 1]);
+                } catch (DeadlineCharSequence.Exceeded ex) {
+                    current.aborted = ex;
+                    abortIfNeeded(head, current, sink, graphQl);
+                }
+                leave(head, current, sink, graphQl);
+                current = segments[k];
+            } else {
+                // 分段点不在代码中，前一段的词法器继续扫描这一段
+                repairedSegments.incrementAndGet();
+                try {
+                    current.stop = current.pass.lex(text, current.stop, bounds[k + 1]);
+                } catch (DeadlineCharSequence.Exceeded ex) {
+                    current.aborted = ex;
+                }
+            }
+        }
+        abortIfNeeded(head, current, sink, graphQl);
+        finish(head, current, sink, graphQl);
+        return current.stop;
+    }
+
+    // 一段合并完成：输出候选，webpack状态并入第一段
+    private static void leave(Segment head, Segment segment, LinkScanner.CandidateSink sink, GraphQlExtractor graphQl) {
+        segment.flushInto(sink, graphQl);
+        if (segment != head) head.pass.absorb(segment.pass);
+    }
+
+    private static void finish(Segment head, Segment last, LinkScanner.CandidateSink sink, GraphQlExtractor graphQl) {
+        leave(head, last, sink, graphQl);
+        head.pass.finish();
+        head.flushInto(sink, null);
+    }
+
+    // 超时的段输出已有结果后继续抛出，之后的段不再合并
+    private static void abortIfNeeded(Segment head, Segment segment, LinkScanner.CandidateSink sink,
+                                      GraphQlExtractor graphQl) {
+        if (segment.aborted == null) return;
+        finish(head, segment, sink, graphQl);
+        throw segment.aborted;
+    }
+
+    private static int firstToken(CharSequence text, int p, int to) {
+        while (p < to) {
+            char c = text.charAt(p);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r' && c != '\f' && c != 0x0B) break;
+            p++;
+        }
+        return p;
+    }
+
+    private static int[] boundaries(CharSequence text, int from, int to, int count) {
+        if (count < 2) return new int[]{from, to};
+        int[] bounds = new int[count + 1];
+        int n = 1;
+        bounds[0] = from;
+        for (int k = 1; k < count; k++) {
+            int boundary = boundaryAfter(text, from + (int) ((long) (to - from) * k / count), to);
+            if (boundary > bounds[n - 1] && boundary < to) bounds[n++] = boundary;
+        }
+        bounds[n++] = to;
+        return Arrays.copyOf(bounds, n);
+    }
+
+    // 优先选择 ";\n" 之后，其次是第一个 ';' 之后，找不到时返回-1
+    private static int boundaryAfter(CharSequence text, int target, int to) {
+        int limit = Math.min(to, target + BOUNDARY_SEARCH_CHARS);
+        int semicolon = -1;
+        for (int p = target; p < limit; p++) {
+            char c = text.charAt(p);
+            if (c == ';') {
+                if (semicolon < 0) semicolon = p + 1;
+            } else if (c == '\n' && p > 0 && (text.charAt(p - 1) == ';'
+                    || (text.charAt(p - 1) == '\r' && p > 1 && text.charAt(p - 2) == ';'))) {
+                return p + 1;
+            }
+        }
+        return semicolon;
+    }
+
+    static String getStatistics() {
+        return String.format("【并行扫描】 响应: %d 个, 分段: %d 个, 分段点修正: %d 个, 线程: %d\n",
+                parallelBodies.get(), parallelSegments.get(), repairedSegments.get(), POOL.getParallelism());
+    }
+}
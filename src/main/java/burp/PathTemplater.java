@@ -0,0 +1,168 @@
+package burp;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 路径模板：把整数、UUID、十六进制哈希、base64风格令牌这类ID段替换为{id}，
+// /user/123/orders 和 /user/456/orders 归为 /user/{id}/orders。
+// 每个模板只保留少量具体实例作为样本；查询串只保留排序后的参数名，参数值不参与区分。
+// 每个主机的模板数有上限，超出后的URL不再合并，按第一次出现处理
+final class PathTemplater {
+
+    static final String PLACEHOLDER = "{id}";
+    static final int MAX_SAMPLES = 5;
+    static final int MAX_TEMPLATES_PER_HOST = 2000;
+
+    static final class Template {
+        final String key;
+        final AtomicLong instances = new AtomicLong();
+        private final Set<String> samples = new LinkedHashSet<>();
+
+        Template(String key) {
+            this.key = key;
+        }
+
+        synchronized List<String> samples() {
+            return new ArrayList<>(samples);
+        }
+
+        private synchronized void addSample(String url) {
+            if (samples.size() < MAX_SAMPLES) samples.add(url);
+        }
+    }
+
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> templatesPerHost = new ConcurrentHashMap<>();
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong overflowed = new AtomicLong();
+
+    // 规范化后的URL对应的模板（协议://主机 + 模板路径 + ?排序后的参数名）
+    static String template(String url) {
+        int pathStart = pathStart(url);
+        if (pathStart < 0) return url;
+        int pathEnd = pathStart;
+        while (pathEnd < url.length() && url.charAt(pathEnd) != '?' && url.charAt(pathEnd) != '#') pathEnd++;
+
+        StringBuilder sb = new StringBuilder(url.length());
+        sb.append(url, 0, pathStart);
+        int segmentStart = pathStart + 1;
+        sb.append('/');
+        for (int p = segmentStart; p <= pathEnd; p++) {
+            if (p < pathEnd && url.charAt(p) != '/') continue;
+            if (isIdSegment(url, segmentStart, p)) {
+                sb.append(PLACEHOLDER);
+            } else {
+                sb.append(url, segmentStart, p);
+            }
+            if (p < pathEnd) sb.append('/');
+            segmentStart = p + 1;
+        }
+        appendParamNames(sb, url, pathEnd);
+        return sb.toString();
+    }
+
+    private static int pathStart(String url) {
+        int schemeEnd = url.indexOf("://");
+        return url.indexOf('/', schemeEnd < 0 ? 0 : schemeEnd + 3);
+    }
+
+    // ?a=1&b=2 与 ?b=3&a=4 得到相同的 ?a&b
+    private static void appendParamNames(StringBuilder sb, String url, int pathEnd) {
+        if (pathEnd >= url.length() || url.charAt(pathEnd) != '?') return;
+        int queryEnd = url.indexOf('#', pathEnd);
+        if (queryEnd < 0) queryEnd = url.length();
+        Set<String> names = new TreeSet<>();
+        for (String param : url.substring(pathEnd + 1, queryEnd).split("&")) {
+            int eq = param.indexOf('=');
+            String name = eq >= 0 ? param.substring(0, eq) : param;
+            if (!name.isEmpty()) names.add(name);
+        }
+        if (!names.isEmpty()) sb.append('?').append(String.join("&", names));
+    }
+
+    // 记录一个URL，返回true表示它的模板第一次出现；主机的模板数已达上限时不记录，同样返回true
+    boolean record(String url) {
+        recorded.incrementAndGet();
+        String key = template(url);
+        Template template = templates.get(key);
+        if (template == null) {
+            int pathStart = pathStart(url);
+            String origin = pathStart < 0 ? url : url.substring(0, pathStart);
+            AtomicInteger hostCount = templatesPerHost.computeIfAbsent(origin, k -> new AtomicInteger());
+            template = templates.computeIfAbsent(key, k -> {
+                if (hostCount.incrementAndGet() <= MAX_TEMPLATES_PER_HOST) return new Template(k);
+                hostCount.decrementAndGet();
+                return null;
+            });
+            if (template == null) {
+                overflowed.incrementAndGet();
+                return true;
+            }
+        }
+        template.addSample(url);
+        return template.instances.incrementAndGet() == 1;
+    }
+
+    Template get(String url) {
+        return templates.get(template(url));
+    }
+
+    void clear() {
+        templates.clear();
+        templatesPerHost.clear();
+        recorded.set(0);
+        overflowed.set(0);
+    }
+
+    static boolean isIdSegment(CharSequence s, int start, int end) {
+        int length = end - start;
+        if (length == 0) return false;
+        int digits = 0;
+        int upper = 0;
+        int lower = 0;
+        int hexLetters = 0;
+        int dashes = 0;
+        for (int p = start; p < end; p++) {
+            char c = s.charAt(p);
+            if (c >= '0' && c <= '9') {
+                digits++;
+            } else if (c >= 'a' && c <= 'z') {
+                lower++;
+                if (c <= 'f') hexLetters++;
+            } else if (c >= 'A' && c <= 'Z') {
+                upper++;
+                if (c <= 'F') hexLetters++;
+            } else if (c == '-') {
+                dashes++;
+            } else if (c != '_') {
+                // 带扩展名或其他字符的段是文件名或普通路径
+                return false;
+            }
+        }
+        if (digits == length) return true;
+        if (length == 36 && dashes == 4 && digits + hexLetters == 32 && isUuidLayout(s, start)) return true;
+        // 十六进制哈希（MD5/SHA/ObjectId等）
+        if (length >= 16 && digits > 0 && digits + hexLetters == length) return true;
+        // base64/base64url令牌：大小写字母和数字混合，单词之间用 - 连接的slug不算
+        return length >= 16 && digits >= 2 && upper > 0 && lower > 0 && dashes <= 1;
+    }
+
+    private static boolean isUuidLayout(CharSequence s, int start) {
+        return s.charAt(start + 8) == '-' && s.charAt(start + 13) == '-'
+                && s.charAt(start + 18) == '-' && s.charAt(start + 23) == '-';
+    }
+
+    String getStatistics() {
+        long urls = recorded.get();
+        int count = templates.size();
+        return String.format("【路径模板】 URL: %d, 模板: %d (平均每个模板 %.1f 个实例), 超出主机上限未合并: %d\n",
+                urls, count, count == 0 ? 0.0 : (double) urls / count, overflowed.get());
+    }
+}
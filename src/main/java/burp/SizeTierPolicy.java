@@ -0,0 +1,120 @@
+package burp;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 按MIME类别的响应大小分级：小于完整上限时完整提取，介于两个上限之间时只扫描头尾采样，
+// 超过采样上限时只记录状态、大小和类型
+final class SizeTierPolicy {
+
+    enum Tier {
+        FULL(""),
+        SAMPLED(" [头尾采样]"),
+        METADATA_ONLY(" [仅元数据]");
+
+        final String label;
+
+        Tier(String label) {
+            this.label = label;
+        }
+    }
+
+    enum MimeClass {
+        SCRIPT("脚本", 8 * 1024, 64 * 1024),
+        JSON("JSON", 4 * 1024, 32 * 1024),
+        HTML("HTML", 2 * 1024, 16 * 1024),
+        CSS("CSS", 1024, 8 * 1024),
+        XML("XML", 2 * 1024, 16 * 1024),
+        TEXT("文本", 1024, 8 * 1024);
+
+        final String displayName;
+        final int defaultFullKb;
+        final int defaultSampleKb;
+
+        MimeClass(String displayName, int defaultFullKb, int defaultSampleKb) {
+            this.displayName = displayName;
+            this.defaultFullKb = defaultFullKb;
+            this.defaultSampleKb = defaultSampleKb;
+        }
+    }
+
+    // 每个类别的 {完整提取上限KB, 采样上限KB}
+    private final Map<MimeClass, int[]> limits = new EnumMap<>(MimeClass.class);
+    private final Map<Tier, AtomicLong> tierCounts = new EnumMap<>(Tier.class);
+
+    SizeTierPolicy() {
+        for (MimeClass mimeClass : MimeClass.values()) {
+            limits.put(mimeClass, new int[]{mimeClass.defaultFullKb, mimeClass.defaultSampleKb});
+        }
+        for (Tier tier : Tier.values()) {
+            tierCounts.put(tier, new AtomicLong());
+        }
+    }
+
+    static MimeClass classify(String mimeType) {
+        if (mimeType.contains("script")) return MimeClass.SCRIPT;
+        if (mimeType.contains("json")) return MimeClass.JSON;
+        if (mimeType.contains("html")) return MimeClass.HTML;
+        if (mimeType.contains("css")) return MimeClass.CSS;
+        if (mimeType.contains("xml")) return MimeClass.XML;
+        return MimeClass.TEXT;
+    }
+
+    Tier tierFor(String mimeType, long bodyLength) {
+        int[] limit = getLimits(classify(mimeType));
+        Tier tier;
+        if (bodyLength <= limit[0] * 1024L) {
+            tier = Tier.FULL;
+        } else if (bodyLength <= limit[1] * 1024L) {
+            tier = Tier.SAMPLED;
+        } else {
+            tier = Tier.METADATA_ONLY;
+        }
+        tierCounts.get(tier).incrementAndGet();
+        return tier;
+    }
+
+    synchronized int[] getLimits(MimeClass mimeClass) {
+        return limits.get(mimeClass).clone();
+    }
+
+    synchronized void setLimits(MimeClass mimeClass, int fullKb, int sampleKb) {
+        limits.put(mimeClass, new int[]{fullKb, Math.max(fullKb, sampleKb)});
+    }
+
+    // 格式: SCRIPT=8192:65536;JSON=4096:32768
+    synchronized String serialize() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<MimeClass, int[]> entry : limits.entrySet()) {
+            if (sb.length() > 0) sb.append(';');
+            sb.append(entry.getKey().name()).append('=')
+                    .append(entry.getValue()[0]).append(':').append(entry.getValue()[1]);
+        }
+        return sb.toString();
+    }
+
+    synchronized void parse(String value) {
+        if (value == null) return;
+        for (String item : value.split(";")) {
+            int eq = item.indexOf('=');
+            int colon = item.indexOf(':');
+            if (eq <= 0 || colon <= eq) continue;
+            try {
+                MimeClass mimeClass = MimeClass.valueOf(item.substring(0, eq).trim());
+                int fullKb = Integer.parseInt(item.substring(eq + 1, colon).trim());
+                int sampleKb = Integer.parseInt(item.substring(colon + 1).trim());
+                setLimits(mimeClass, fullKb, sampleKb);
+            } catch (IllegalArgumentException ex) {
+                // 忽略无法识别的配置项
+            }
+        }
+    }
+
+    String getStatistics() {
+        return String.format("【大小分级】 完整提取: %d, 头尾采样: %d, 仅元数据: %d\n",
+                tierCounts.get(Tier.FULL).get(),
+                tierCounts.get(Tier.SAMPLED).get(),
+                tierCounts.get(Tier.METADATA_ONLY).get());
+    }
+}
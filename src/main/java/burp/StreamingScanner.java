@@ -0,0 +1,73 @@
+package burp;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 大响应的流式扫描：按固定大小的窗口逐段解码并扫描，窗口之间保留重叠区，
+// 跨越窗口边界的匹配不会丢失，内存占用与响应大小无关
+final class StreamingScanner {
+
+    static final int WINDOW_CHARS = 256 * 1024;
+    // 跨窗口匹配的最大长度
+    static final int OVERLAP_CHARS = 8 * 1024;
+    // 保留窗口前的内容，供 import(/require( 等向前检查使用
+    static final int LOOKBEHIND_CHARS = 256;
+
+    private static final AtomicLong streamedBodies = new AtomicLong();
+    private static final AtomicLong streamedBytes = new AtomicLong();
+    private static final AtomicLong streamedWindows = new AtomicLong();
+
+    private StreamingScanner() {
+    }
+
+    // 扫描[from, to)范围内需要按charset解码的字节，返回实际扫描的字节数。
+    // 可以直接使用字节视图的响应不复制内容，本身就是常量内存，不需要经过这里。
+    // 每个窗口扫描前检查截止时间，超时抛出DeadlineCharSequence.Exceeded。
+    // extra（可以为null）为自定义规则等附加扫描，在同样的窗口上执行，窗口内也受截止时间限制
+    static long scan(byte[] bytes, int from, int to, Charset charset, int mode, LinkScanner.RangeScanner extra,
+                     long deadlineNanos, LinkScanner.CandidateSink sink) {
+        streamedBodies.incrementAndGet();
+        streamedBytes.addAndGet(to - from);
+
+        CharsetDecoder decoder = BodyDecoder.decoderFor(charset);
+        ByteBuffer in = ByteBuffer.wrap(bytes, from, to - from);
+        CharBuffer window = BodyDecoder.pooledBuffer(LOOKBEHIND_CHARS + WINDOW_CHARS + OVERLAP_CHARS);
+        int scanFrom = 0;
+        int extraFrom = 0;
+
+        while (true) {
+            CoderResult result = decoder.decode(in, window, true);
+            boolean finished = result.isUnderflow() && !in.hasRemaining();
+            if (finished) {
+                decoder.flush(window);
+            }
+            window.flip();
+            streamedWindows.incrementAndGet();
+            DeadlineCharSequence.check("streaming", deadlineNanos);
+
+            // 未结束时，最后的重叠区留给下一个窗口作为匹配起点
+            int limit = window.limit();
+            int scanTo = finished ? limit : Math.max(scanFrom, limit - OVERLAP_CHARS);
+            int stop = LinkScanner.scan(window, scanFrom, scanTo, mode, sink);
+            int extraStop = extra == null ? scanTo
+                    : extra.scan(new DeadlineCharSequence(window, "streaming", deadlineNanos), extraFrom, scanTo, sink);
+            if (finished) break;
+
+            int keepFrom = Math.max(0, scanTo - LOOKBEHIND_CHARS);
+            scanFrom = Math.max(scanTo, stop) - keepFrom;
+            extraFrom = Math.max(scanTo, extraStop) - keepFrom;
+            window.position(keepFrom);
+            window.compact();
+        }
+        return to - from;
+    }
+
+    static String getStatistics() {
+        return String.format("【流式扫描】 响应: %d 个, 字节: %s, 窗口: %d 个\n",
+                streamedBodies.get(), BurpExtender.formatSize(streamedBytes.get()), streamedWindows.get());
+    }
+}
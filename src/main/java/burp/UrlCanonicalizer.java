@@ -0,0 +1,151 @@
+package burp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+// URL规范化，用于去重和资源表：协议和主机小写、去掉默认端口和片段、
+// 处理路径中的 . 和 ..、百分号编码的十六进制统一为大写，可选按参数名排序查询参数。
+// 无法识别的输入原样返回
+final class UrlCanonicalizer {
+
+    private static final AtomicLong responses = new AtomicLong();
+    private static final AtomicLong responsesRewritten = new AtomicLong();
+    private static final AtomicLong responsesCollapsed = new AtomicLong();
+    private static final AtomicLong links = new AtomicLong();
+    private static final AtomicLong linksRewritten = new AtomicLong();
+
+    private UrlCanonicalizer() {
+    }
+
+    static String canonicalize(String url, boolean sortQuery) {
+        int schemeEnd = url.indexOf("://");
+        if (schemeEnd <= 0) return url;
+        for (int i = 0; i < schemeEnd; i++) {
+            char c = url.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '+' && c != '-' && c != '.') return url;
+        }
+        String scheme = url.substring(0, schemeEnd).toLowerCase(Locale.ROOT);
+
+        int authorityStart = schemeEnd + 3;
+        int authorityEnd = authorityStart;
+        while (authorityEnd < url.length() && "/?#".indexOf(url.charAt(authorityEnd)) < 0) authorityEnd++;
+        int fragment = url.indexOf('#', authorityEnd);
+        int end = fragment >= 0 ? fragment : url.length();
+        int query = url.indexOf('?', authorityEnd);
+        if (query > end) query = -1;
+        int pathEnd = query >= 0 ? query : end;
+
+        StringBuilder sb = new StringBuilder(url.length());
+        sb.append(scheme).append("://");
+        appendAuthority(sb, url.substring(authorityStart, authorityEnd), scheme);
+        String path = url.substring(authorityEnd, pathEnd);
+        sb.append(path.isEmpty() ? "/" : removeDotSegments(normalizeEscapes(path)));
+        if (query >= 0) {
+            String queryString = normalizeEscapes(url.substring(query + 1, end));
+            sb.append('?').append(sortQuery ? sortQuery(queryString) : queryString);
+        }
+        return sb.toString();
+    }
+
+    // 规范化后的URL中 协议://主机[:端口] 部分
+    static String origin(String canonicalUrl) {
+        int schemeEnd = canonicalUrl.indexOf("://");
+        int pathStart = canonicalUrl.indexOf('/', schemeEnd < 0 ? 0 : schemeEnd + 3);
+        return pathStart < 0 ? canonicalUrl : canonicalUrl.substring(0, pathStart);
+    }
+
+    // 用户信息保持原样，主机小写，去掉默认端口
+    private static void appendAuthority(StringBuilder sb, String authority, String scheme) {
+        int at = authority.lastIndexOf('@');
+        if (at >= 0) sb.append(authority, 0, at + 1);
+        String hostPort = authority.substring(at + 1);
+        int bracket = hostPort.lastIndexOf(']');
+        int colon = hostPort.lastIndexOf(':');
+        if (colon < bracket) colon = -1;
+        String host = colon >= 0 ? hostPort.substring(0, colon) : hostPort;
+        String port = colon >= 0 ? hostPort.substring(colon + 1) : "";
+        if (host.endsWith(".")) host = host.substring(0, host.length() - 1);
+        sb.append(host.toLowerCase(Locale.ROOT));
+        boolean defaultPort = port.isEmpty()
+                || (port.equals("80") && (scheme.equals("http") || scheme.equals("ws")))
+                || (port.equals("443") && (scheme.equals("https") || scheme.equals("wss")));
+        if (!defaultPort) sb.append(':').append(port);
+    }
+
+    // RFC 3986 5.2.4
+    static String removeDotSegments(String path) {
+        if (path.indexOf('.') < 0) return path;
+        List<String> output = new ArrayList<>();
+        String[] segments = path.split("/", -1);
+        for (int i = 1; i < segments.length; i++) {
+            String segment = segments[i];
+            boolean last = i == segments.length - 1;
+            if (segment.equals(".")) {
+                if (last) output.add("");
+            } else if (segment.equals("..")) {
+                if (!output.isEmpty()) output.remove(output.size() - 1);
+                if (last) output.add("");
+            } else {
+                output.add(segment);
+            }
+        }
+        return "/" + String.join("/", output);
+    }
+
+    // %xx 的十六进制统一为大写
+    private static String normalizeEscapes(String s) {
+        int percent = s.indexOf('%');
+        if (percent < 0) return s;
+        StringBuilder sb = new StringBuilder(s);
+        for (int i = percent; i + 2 < sb.length(); i++) {
+            if (sb.charAt(i) == '%' && isHex(sb.charAt(i + 1)) && isHex(sb.charAt(i + 2))) {
+                sb.setCharAt(i + 1, Character.toUpperCase(sb.charAt(i + 1)));
+                sb.setCharAt(i + 2, Character.toUpperCase(sb.charAt(i + 2)));
+                i += 2;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean isHex(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    // 按参数名稳定排序，同名参数保持原有顺序
+    private static String sortQuery(String query) {
+        if (query.indexOf('&') < 0) return query;
+        List<String> params = new ArrayList<>();
+        Collections.addAll(params, query.split("&", -1));
+        params.sort((a, b) -> paramName(a).compareTo(paramName(b)));
+        return String.join("&", params);
+    }
+
+    private static String paramName(String param) {
+        int eq = param.indexOf('=');
+        return eq >= 0 ? param.substring(0, eq) : param;
+    }
+
+    // collapsed为改写过的URL与已处理的URL重复而被跳过（不保留原始URL，原始形式本身重复的也计入）
+    static void recordResponse(boolean rewritten, boolean collapsed) {
+        responses.incrementAndGet();
+        if (rewritten) responsesRewritten.incrementAndGet();
+        if (collapsed) responsesCollapsed.incrementAndGet();
+    }
+
+    static void recordLink(boolean rewritten) {
+        links.incrementAndGet();
+        if (rewritten) linksRewritten.incrementAndGet();
+    }
+
+    static String getStatistics() {
+        long responseCount = responses.get();
+        long linkCount = links.get();
+        return String.format("【URL规范化】 响应: %d, 改写: %d, 规范化后合并: %d (%.1f%%); 提取链接: %d, 改写: %d (%.1f%%)\n",
+                responseCount, responsesRewritten.get(), responsesCollapsed.get(),
+                responseCount == 0 ? 0.0 : responsesCollapsed.get() * 100.0 / responseCount,
+                linkCount, linksRewritten.get(), linkCount == 0 ? 0.0 : linksRewritten.get() * 100.0 / linkCount);
+    }
+}
@@ -0,0 +1,231 @@
+package burp;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// 已处理URL的集合，只保存URL的64位指纹，不保留字符串。
+// 开放寻址（线性探测）的long表，第一次写入时才分配，装载因子超过3/4时按1.5倍扩容，每个URL占用约11~16字节。
+// 堆内表逐槽CAS插入，认领不加锁；扩容时持有扩容锁，把旧表的槽逐个换成MOVED后复制到新表，
+// 遇到MOVED的线程等扩容完成后在新表上重试。
+// 堆外表放在一块直接内存中，Java 8没有对直接内存的CAS，读写都持有锁。
+// 指纹带有每次加载随机生成的种子，无法事先构造出指纹相同的URL。
+// 判重以指纹为准：两个不同URL指纹相同的概率约为 n²/2^65（一千万个URL约百万分之三），
+// 此时后到的URL会被当作已处理；要完全排除只能保留原始字符串，与节省内存的目的相悖，因此不做二次确认
+final class UrlFingerprintSet {
+
+    private static final int INITIAL_CAPACITY = 16;
+    // 表对象本身的开销（数组头、AtomicLongArray或DirectByteBuffer对象）
+    private static final int TABLE_OVERHEAD_BYTES = 64;
+    private static final long SEED = new SecureRandom().nextLong();
+    // 0为空槽，MOVED为扩容中已复制到新表的槽
+    private static final long MOVED = Long.MIN_VALUE;
+
+    final boolean offHeap;
+    private final Object resizeLock = new Object();
+    private final AtomicInteger size = new AtomicInteger();
+    private volatile AtomicLongArray table;
+    private LongBuffer offHeapTable;
+    private int offHeapCapacity;
+
+    UrlFingerprintSet(boolean offHeap) {
+        this.offHeap = offHeap;
+    }
+
+    // 原子地加入，已存在时返回false
+    boolean add(CharSequence url) {
+        return insert(fingerprint(url));
+    }
+
+    // 调用方自行计算的指纹，0和MOVED会被映射为相邻的值
+    boolean add(long fingerprint) {
+        return insert(slotValue(fingerprint));
+    }
+
+    boolean contains(CharSequence url) {
+        long fingerprint = fingerprint(url);
+        if (offHeap) return containsOffHeap(fingerprint);
+        for (;;) {
+            AtomicLongArray t = table;
+            if (t == null) return false;
+            int capacity = t.length();
+            int i = indexFor(fingerprint, capacity);
+            boolean moved = false;
+            for (int probes = 0; probes < capacity; probes++) {
+                long slot = t.get(i);
+                if (slot == fingerprint) return true;
+                if (slot == 0) return false;
+                if (slot == MOVED) {
+                    moved = true;
+                    break;
+                }
+                i = i + 1 == capacity ? 0 : i + 1;
+            }
+            if (!moved) return false;
+            awaitResize();
+        }
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    // 表占用的字节数
+    long memoryBytes() {
+        if (offHeap) {
+            synchronized (resizeLock) {
+                return offHeapTable == null ? 0 : offHeapCapacity * 8L + TABLE_OVERHEAD_BYTES;
+            }
+        }
+        AtomicLongArray t = table;
+        return t == null ? 0 : t.length() * 8L + TABLE_OVERHEAD_BYTES;
+    }
+
+    private boolean insert(long fingerprint) {
+        if (offHeap) return insertOffHeap(fingerprint);
+        for (;;) {
+            AtomicLongArray t = table;
+            if (t == null) t = initTable();
+            int capacity = t.length();
+            int i = indexFor(fingerprint, capacity);
+            int probes = 0;
+            for (;;) {
+                if (probes == capacity) {
+                    // 并发插入使表在扩容前被填满
+                    grow(t);
+                    break;
+                }
+                long slot = t.get(i);
+                if (slot == fingerprint) return false;
+                if (slot == MOVED) {
+                    awaitResize();
+                    break;
+                }
+                if (slot == 0) {
+                    if (!t.compareAndSet(i, 0, fingerprint)) continue; // 重新读取同一槽
+                    if (size.incrementAndGet() > capacity - (capacity >>> 2)) grow(t);
+                    return true;
+                }
+                i = i + 1 == capacity ? 0 : i + 1;
+                probes++;
+            }
+        }
+    }
+
+    private AtomicLongArray initTable() {
+        synchronized (resizeLock) {
+            if (table == null) table = new AtomicLongArray(INITIAL_CAPACITY);
+            return table;
+        }
+    }
+
+    // 旧表的槽逐个换成MOVED，换之前CAS写入的指纹会被复制，换之后的CAS失败并转到新表
+    private void grow(AtomicLongArray old) {
+        synchronized (resizeLock) {
+            if (table != old) return;
+            int capacity = old.length();
+            int newCapacity = capacity + (capacity >>> 1);
+            AtomicLongArray newTable = new AtomicLongArray(newCapacity);
+            for (int i = 0; i < capacity; i++) {
+                long slot = old.getAndSet(i, MOVED);
+                if (slot == 0) continue;
+                int j = indexFor(slot, newCapacity);
+                while (newTable.get(j) != 0) j = j + 1 == newCapacity ? 0 : j + 1;
+                newTable.set(j, slot);
+            }
+            table = newTable;
+        }
+    }
+
+    // 扩容在持有锁时完成并发布新表，拿到锁即表示扩容已结束
+    private void awaitResize() {
+        synchronized (resizeLock) {
+            // 只等待
+        }
+    }
+
+    private boolean insertOffHeap(long fingerprint) {
+        synchronized (resizeLock) {
+            if (offHeapTable == null) {
+                offHeapCapacity = INITIAL_CAPACITY;
+                offHeapTable = allocateDirect(offHeapCapacity);
+            } else if (size.get() + 1 > offHeapCapacity - (offHeapCapacity >>> 2)) {
+                int newCapacity = offHeapCapacity + (offHeapCapacity >>> 1);
+                LongBuffer newTable = allocateDirect(newCapacity);
+                for (int i = 0; i < offHeapCapacity; i++) {
+                    long slot = offHeapTable.get(i);
+                    if (slot != 0) insertInto(newTable, newCapacity, slot);
+                }
+                offHeapTable = newTable;
+                offHeapCapacity = newCapacity;
+            }
+            if (!insertInto(offHeapTable, offHeapCapacity, fingerprint)) return false;
+            size.incrementAndGet();
+            return true;
+        }
+    }
+
+    private boolean containsOffHeap(long fingerprint) {
+        synchronized (resizeLock) {
+            if (offHeapTable == null) return false;
+            for (int i = indexFor(fingerprint, offHeapCapacity); ; i = i + 1 == offHeapCapacity ? 0 : i + 1) {
+                long slot = offHeapTable.get(i);
+                if (slot == 0) return false;
+                if (slot == fingerprint) return true;
+            }
+        }
+    }
+
+    private static LongBuffer allocateDirect(int slotCount) {
+        return ByteBuffer.allocateDirect(slotCount * 8).order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+
+    private static boolean insertInto(LongBuffer table, int tableCapacity, long fingerprint) {
+        for (int i = indexFor(fingerprint, tableCapacity); ; i = i + 1 == tableCapacity ? 0 : i + 1) {
+            long slot = table.get(i);
+            if (slot == fingerprint) return false;
+            if (slot == 0) {
+                table.put(i, fingerprint);
+                return true;
+            }
+        }
+    }
+
+    // 容量不是2的幂，用低32位乘法映射到[0, capacity)
+    private static int indexFor(long fingerprint, int tableCapacity) {
+        return (int) (((fingerprint & 0xFFFFFFFFL) * tableCapacity) >>> 32);
+    }
+
+    private static long slotValue(long fingerprint) {
+        return fingerprint == 0 || fingerprint == MOVED ? fingerprint + 1 : fingerprint;
+    }
+
+    // 每次合并4个字符，最后做64位雪崩混合；0和MOVED保留给槽位状态
+    static long fingerprint(CharSequence text) {
+        int length = text.length();
+        long h = (0x9E3779B97F4A7C15L ^ SEED) + length;
+        int p = 0;
+        for (; p + 4 <= length; p += 4) {
+            long k = text.charAt(p) | (long) text.charAt(p + 1) << 16
+                    | (long) text.charAt(p + 2) << 32 | (long) text.charAt(p + 3) << 48;
+            h = Long.rotateLeft(h ^ mix(k), 27) * 0x9E3779B97F4A7C15L + 0x52DCE729L;
+        }
+        long tail = 0;
+        for (int shift = 0; p < length; p++, shift += 16) {
+            tail |= (long) text.charAt(p) << shift;
+        }
+        return slotValue(mix(h ^ mix(tail)));
+    }
+
+    private static long mix(long k) {
+        k ^= k >>> 33;
+        k *= 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        k *= 0xC4CEB9FE1A85EC53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,149 @@
+package burp;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+// 第三方库识别：命中的JS/CSS只记录在资源表中，不做提取。
+// 内置规则为常见库的文件名/版本命名和公共库CDN；用户可以追加文件名正则，
+// 以及把某个资源的内容哈希标记为第三方库（同一文件换了名字或域名也能识别）
+final class VendorFingerprints {
+    private static final String KEY_HASHES = "vendor_hashes";
+    private static final String KEY_PATTERNS = "vendor_patterns";
+    private static final String KEY_BUILTIN = "vendor_builtin";
+
+    private static final String FILE_SUFFIX = "(?:[.-](?:\\d[\\w]*|min|prod|production|development|dev|umd|esm|cjs|global"
+            + "|runtime|common|bundle|slim|full|browser|[0-9a-f]{6,}))";
+    // 库名 + 版本/构建类型/内容哈希后缀，例如 jquery-3.6.0.min.js、react-dom.production.min.js、vue.global.prod.js
+    private static final Pattern BUILTIN_FILES = Pattern.compile(
+            "^(jquery(?:-ui|-migrate)?|react(?:-dom|-router(?:-dom)?)?|lodash|underscore|moment(?:-timezone)?|dayjs"
+                    + "|vue(?:x|-router)?|angular|popper|axios|echarts|highcharts|backbone|zepto"
+                    + "|swiper|gsap|crypto-js|jszip|xlsx|leaflet|mapbox-gl|core-js|rxjs|tinymce|ckeditor"
+                    + "|select2|sweetalert2?|layui|element-ui|antd|vant|socket\\.io|pdf\\.worker|modernizr"
+                    + "|sockjs|font-?awesome|regenerator-runtime)"
+                    + "(" + FILE_SUFFIX + "*)\\.(?:js|css)$");
+    // 应用自己的代码也常用这些名字（module federation 的 bootstrap.js、zone.js 等），
+    // 必须带版本或构建后缀才算第三方库，例如 bootstrap.bundle.min.js、require-2.3.6.js
+    private static final Pattern BUILTIN_SUFFIXED_FILES = Pattern.compile(
+            "^(bootstrap|zone|require|pdf|d3|three|hls|animate|normalize)"
+                    + "(" + FILE_SUFFIX + "+)\\.(?:js|css)$");
+    // 打包工具拆分出的依赖包：chunk-vendors.js、vendors~main.js、framework-xxx.js、polyfills-xxx.js
+    private static final Pattern BUILTIN_CHUNKS = Pattern.compile(
+            "^(chunk-vendors|vendors?|framework|polyfills)(?:[.~-][\\w.~-]*)?\\.js$");
+    // 只提供开源库的公共CDN
+    private static final String[] CDN_HOSTS = {
+            "cdn.jsdelivr.net", "cdnjs.cloudflare.com", "unpkg.com", "code.jquery.com", "ajax.googleapis.com",
+            "cdn.bootcdn.net", "cdn.bootcss.com", "lib.baomitu.com", "cdn.staticfile.org", "cdn.staticfile.net",
+            "stackpath.bootstrapcdn.com", "maxcdn.bootstrapcdn.com"
+    };
+
+    private final Set<Long> hashes = ConcurrentHashMap.newKeySet();
+    private volatile List<Pattern> userPatterns = Collections.emptyList();
+    private volatile String userPatternText = "";
+    volatile boolean builtinEnabled = true;
+
+    private final AtomicLong matchedResources = new AtomicLong();
+    private final AtomicLong skippedBytes = new AtomicLong();
+
+    void load(IBurpExtenderCallbacks callbacks) {
+        String savedHashes = callbacks.loadExtensionSetting(KEY_HASHES);
+        if (savedHashes != null) {
+            for (String hex : savedHashes.split(",")) {
+                try {
+                    if (!hex.trim().isEmpty()) hashes.add(Long.parseUnsignedLong(hex.trim(), 16));
+                } catch (NumberFormatException ex) {
+                    callbacks.printError("无效的第三方库哈希: " + hex);
+                }
+            }
+        }
+        String savedPatterns = callbacks.loadExtensionSetting(KEY_PATTERNS);
+        if (savedPatterns != null) {
+            try {
+                setUserPatterns(savedPatterns);
+            } catch (PatternSyntaxException ex) {
+                callbacks.printError("无效的第三方库规则: " + ex.getMessage());
+            }
+        }
+        builtinEnabled = !"false".equals(callbacks.loadExtensionSetting(KEY_BUILTIN));
+    }
+
+    void save(IBurpExtenderCallbacks callbacks) {
+        StringBuilder sb = new StringBuilder();
+        for (Long hash : hashes) {
+            if (sb.length() > 0) sb.append(',');
+            sb.append(Long.toHexString(hash));
+        }
+        callbacks.saveExtensionSetting(KEY_HASHES, sb.toString());
+        callbacks.saveExtensionSetting(KEY_PATTERNS, userPatternText);
+        callbacks.saveExtensionSetting(KEY_BUILTIN, String.valueOf(builtinEnabled));
+    }
+
+    // 每行一个文件名正则（忽略大小写），全部编译成功后才替换
+    void setUserPatterns(String text) {
+        List<Pattern> patterns = new ArrayList<>();
+        for (String line : text.split("\n")) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty()) patterns.add(Pattern.compile(trimmed, Pattern.CASE_INSENSITIVE));
+        }
+        userPatterns = patterns;
+        userPatternText = text.trim();
+    }
+
+    String getUserPatternText() {
+        return userPatternText;
+    }
+
+    void addHash(long bodyHash) {
+        hashes.add(bodyHash);
+    }
+
+    int hashCount() {
+        return hashes.size();
+    }
+
+    // 返回命中的库名，未命中返回null
+    String match(URL url, long bodyHash, long bodyLength) {
+        String label = matchLabel(url, bodyHash);
+        if (label != null) {
+            matchedResources.incrementAndGet();
+            skippedBytes.addAndGet(bodyLength);
+        }
+        return label;
+    }
+
+    private String matchLabel(URL url, long bodyHash) {
+        if (hashes.contains(bodyHash)) return "已标记";
+
+        String path = url.getPath();
+        String name = path == null ? "" : path.substring(path.lastIndexOf('/') + 1).toLowerCase(Locale.ROOT);
+        for (Pattern pattern : userPatterns) {
+            if (pattern.matcher(name).find()) return pattern.pattern();
+        }
+        if (!builtinEnabled) return null;
+
+        String host = url.getHost().toLowerCase(Locale.ROOT);
+        for (String cdn : CDN_HOSTS) {
+            if (host.equals(cdn)) return cdn;
+        }
+        Matcher matcher = BUILTIN_FILES.matcher(name);
+        if (matcher.matches()) return matcher.group(1);
+        matcher = BUILTIN_SUFFIXED_FILES.matcher(name);
+        if (matcher.matches()) return matcher.group(1);
+        matcher = BUILTIN_CHUNKS.matcher(name);
+        if (matcher.matches()) return matcher.group(1);
+        return null;
+    }
+
+    String getStatistics() {
+        return String.format("【第三方库】 跳过资源: %d 个, 跳过字节: %s, 已标记哈希: %d, 自定义规则: %d\n",
+                matchedResources.get(), BurpExtender.formatSize(skippedBytes.get()), hashes.size(), userPatterns.size());
+    }
+}
@@ -0,0 +1,295 @@
+package burp;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+// webpack运行时的chunk地址函数解析，例如
+//   r.u=e=>"static/js/"+({85:"about"}[e]||e)+"."+{85:"3f2a1b",91:"9c0d4e"}[e]+".chunk.js"
+//   return a.p+"js/"+({}[e]||e)+"."+{"chunk-1":"abc"}[e]+".js"
+// 识别由字符串、chunk id变量、publicPath以及 {id:值}[e] 映射拼接成的表达式，
+// 按映射中的全部id一次性生成所有懒加载chunk的地址
+final class WebpackChunkExtractor implements JsLexer.TokenSink {
+
+    private static final int MAX_CHUNKS = 20000;
+    private static final AtomicLong decodedChunks = new AtomicLong();
+
+    // 拼接表达式中的各部分
+    private static final Object CHUNK_ID = new Object();
+    private static final Object PUBLIC_PATH = new Object();
+    private static final Object UNKNOWN = new Object();
+
+    private static class ChunkMap {
+        final Map<String, String> entries = new LinkedHashMap<>();
+        boolean fallbackToId; // ({...}[e]||e)
+    }
+
+    private enum State { EXPRESSION, MAP_KEY, MAP_COLON, MAP_VALUE, MAP_NEXT, MAP_INDEX_OPEN, MAP_INDEX, MAP_INDEX_CLOSE }
+
+    private final LinkScanner.CandidateSink sink;
+    private final List<List<Object>> chunkExpressions = new ArrayList<>();
+    private String publicPath;
+
+    private State state = State.EXPRESSION;
+    private List<Object> parts = new ArrayList<>();
+    private boolean expectOperand = true;
+    private boolean afterDot;
+    private boolean inParen;
+    private boolean awaitingFallback;
+    private boolean assignPublicPath;
+    private ChunkMap currentMap;
+    private String currentKey;
+
+    WebpackChunkExtractor(LinkScanner.CandidateSink sink) {
+        this.sink = sink;
+    }
+
+    @Override
+    public void token(int type, CharSequence text, int start, int end) {
+        if (state != State.EXPRESSION) {
+            mapToken(type, text, start, end);
+            return;
+        }
+
+        boolean single = end - start == 1;
+        char c = text.charAt(start);
+        switch (type) {
+            case JsLexer.STRING:
+                if (!expectOperand) endExpression();
+                parts.add(JsLexer.unescape(text, start, end).toString());
+                expectOperand = false;
+                break;
+            case JsLexer.IDENTIFIER:
+                if (afterDot && end - start == 1 && c == 'p' && !parts.isEmpty()) {
+                    // X.p 为webpack的publicPath
+                    parts.set(parts.size() - 1, PUBLIC_PATH);
+                } else if (afterDot && !parts.isEmpty()) {
+                    parts.set(parts.size() - 1, UNKNOWN);
+                } else if (awaitingFallback) {
+                    awaitingFallback = false;
+                } else {
+                    if (!expectOperand) endExpression();
+                    parts.add(CHUNK_ID);
+                }
+                afterDot = false;
+                expectOperand = false;
+                break;
+            case JsLexer.PUNCTUATOR:
+                afterDot = false;
+                if (single && c == '.' && !expectOperand) {
+                    afterDot = true;
+                } else if (single && c == '+' && !expectOperand) {
+                    expectOperand = true;
+                } else if (single && c == '{' && expectOperand) {
+                    currentMap = new ChunkMap();
+                    state = State.MAP_KEY;
+                } else if (single && c == '(' && expectOperand && !inParen) {
+                    inParen = true;
+                } else if (single && c == ')' && inParen && !expectOperand) {
+                    inParen = false;
+                } else if (end - start == 2 && c == '|' && text.charAt(start + 1) == '|' && inParen
+                        && !parts.isEmpty() && parts.get(parts.size() - 1) instanceof ChunkMap) {
+                    ((ChunkMap) parts.get(parts.size() - 1)).fallbackToId = true;
+                    awaitingFallback = true;
+                } else if (single && c == '=' && parts.size() == 1 && parts.get(0) == PUBLIC_PATH) {
+                    // X.p = "..."
+                    parts.clear();
+                    assignPublicPath = true;
+                    expectOperand = true;
+                } else {
+                    endExpression();
+                }
+                break;
+            default:
+                endExpression();
+                break;
+        }
+    }
+
+    private void mapToken(int type, CharSequence text, int start, int end) {
+        boolean single = end - start == 1;
+        char c = text.charAt(start);
+        switch (state) {
+            case MAP_KEY:
+                if (type == JsLexer.STRING) {
+                    currentKey = JsLexer.unescape(text, start, end).toString();
+                    state = State.MAP_COLON;
+                } else if (type == JsLexer.IDENTIFIER || type == JsLexer.NUMBER) {
+                    currentKey = text.subSequence(start, end).toString();
+                    state = State.MAP_COLON;
+                } else if (single && c == '}') {
+                    state = State.MAP_INDEX_OPEN;
+                } else {
+                    abortMap(type, text, start, end);
+                }
+                break;
+            case MAP_COLON:
+                if (single && c == ':') {
+                    state = State.MAP_VALUE;
+                } else {
+                    abortMap(type, text, start, end);
+                }
+                break;
+            case MAP_VALUE:
+                if (type == JsLexer.STRING) {
+                    currentMap.entries.put(currentKey, JsLexer.unescape(text, start, end).toString());
+                    state = State.MAP_NEXT;
+                } else {
+                    abortMap(type, text, start, end);
+                }
+                break;
+            case MAP_NEXT:
+                if (single && c == ',') {
+                    state = State.MAP_KEY;
+                } else if (single && c == '}') {
+                    state = State.MAP_INDEX_OPEN;
+                } else {
+                    abortMap(type, text, start, end);
+                }
+                break;
+            case MAP_INDEX_OPEN:
+                if (single && c == '[') {
+                    state = State.MAP_INDEX;
+                } else {
+                    abortMap(type, text, start, end);
+                }
+                break;
+            case MAP_INDEX:
+                if (type == JsLexer.IDENTIFIER) {
+                    state = State.MAP_INDEX_CLOSE;
+                } else {
+                    abortMap(type, text, start, end);
+                }
+                break;
+            case MAP_INDEX_CLOSE:
+                if (single && c == ']') {
+                    parts.add(currentMap);
+                    currentMap = null;
+                    expectOperand = false;
+                    state = State.EXPRESSION;
+                } else {
+                    abortMap(type, text, start, end);
+                }
+                break;
+            default:
+                abortMap(type, text, start, end);
+                break;
+        }
+    }
+
+    // 不是映射字面量，放弃当前表达式并按普通token重新处理
+    private void abortMap(int type, CharSequence text, int start, int end) {
+        currentMap = null;
+        state = State.EXPRESSION;
+        resetExpression();
+        token(type, text, start, end);
+    }
+
+    private void endExpression() {
+        if (assignPublicPath && parts.size() == 1 && parts.get(0) instanceof String) {
+            publicPath = (String) parts.get(0);
+        } else if (isChunkExpression(parts)) {
+            chunkExpressions.add(parts);
+            parts = new ArrayList<>();
+        }
+        resetExpression();
+    }
+
+    private void resetExpression() {
+        parts.clear();
+        expectOperand = true;
+        afterDot = false;
+        inParen = false;
+        awaitingFallback = false;
+        assignPublicPath = false;
+    }
+
+    // 至少包含一个非空映射，最后一部分是以.js/.css结尾的字符串
+    private static boolean isChunkExpression(List<Object> parts) {
+        if (parts.size() < 2) return false;
+        Object last = parts.get(parts.size() - 1);
+        if (!(last instanceof String)) return false;
+        String suffix = ((String) last).toLowerCase();
+        if (!suffix.endsWith(".js") && !suffix.endsWith(".css") && !suffix.endsWith(".mjs")) return false;
+
+        boolean hasMap = false;
+        for (Object part : parts) {
+            if (part == UNKNOWN) return false;
+            if (part instanceof ChunkMap && !((ChunkMap) part).entries.isEmpty()) hasMap = true;
+        }
+        return hasMap;
+    }
+
+    // 并行扫描时后一段的chunk表达式并入本段，publicPath与顺序扫描一样以最后一次赋值为准
+    void merge(WebpackChunkExtractor next) {
+        if (next.state == State.EXPRESSION) next.endExpression();
+        chunkExpressions.addAll(next.chunkExpressions);
+        if (next.publicPath != null) publicPath = next.publicPath;
+    }
+
+    // 词法分析结束后统一生成，publicPath的赋值可能出现在chunk函数之后
+    void finish() {
+        if (state == State.EXPRESSION) endExpression();
+
+        int emitted = 0;
+        for (List<Object> expression : chunkExpressions) {
+            Set<String> chunkIds = new LinkedHashSet<>();
+            for (Object part : expression) {
+                if (part instanceof ChunkMap) chunkIds.addAll(((ChunkMap) part).entries.keySet());
+            }
+
+            for (String chunkId : chunkIds) {
+                if (emitted >= MAX_CHUNKS) return;
+                String url = evaluate(expression, chunkId);
+                if (url != null) {
+                    sink.accept(url, false);
+                    emitted++;
+                    decodedChunks.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private String evaluate(List<Object> expression, String chunkId) {
+        StringBuilder sb = new StringBuilder();
+        // webpack 5 的 .u/.miniCssF 只返回相对publicPath的路径，加载时再拼接publicPath
+        if (!expression.contains(PUBLIC_PATH)) {
+            appendPublicPath(sb);
+        }
+        for (Object part : expression) {
+            if (part instanceof String) {
+                sb.append((String) part);
+            } else if (part == CHUNK_ID) {
+                sb.append(chunkId);
+            } else if (part == PUBLIC_PATH) {
+                appendPublicPath(sb);
+            } else if (part instanceof ChunkMap) {
+                ChunkMap map = (ChunkMap) part;
+                String value = map.entries.get(chunkId);
+                if (value == null) {
+                    if (!map.fallbackToId) return null;
+                    value = chunkId;
+                }
+                sb.append(value);
+            }
+        }
+        return sb.toString();
+    }
+
+    // 未找到publicPath赋值时按站点根目录处理，"auto"表示相对运行时脚本所在目录
+    private void appendPublicPath(StringBuilder sb) {
+        if (publicPath == null) {
+            sb.append('/');
+        } else if (!publicPath.equals("auto")) {
+            sb.append(publicPath);
+        }
+    }
+
+    static String getStatistics() {
+        return String.format("【webpack】 解析出的chunk地址: %d\n", decodedChunks.get());
+    }
+}
@@ -0,0 +1,65 @@
+package burp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.Test;
+
+// 32个线程同时提交相同的URL，每个URL只能被认领一次；吞吐量见 Benchmarks.claimScaling
+public class DomainContextClaimTest {
+
+    private static final int THREADS = 32;
+    private static final int DISTINCT = 50_000;
+
+    @Test
+    public void claimsEachUrlExactlyOnce() throws InterruptedException {
+        String[] urls = new String[DISTINCT];
+        for (int i = 0; i < DISTINCT; i++) urls[i] = "https://example.com/api/v1/item/" + i;
+
+        BurpExtender.DomainContext context = new BurpExtender.DomainContext(false);
+        AtomicIntegerArray claims = new AtomicIntegerArray(DISTINCT);
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREADS];
+        Throwable[] failure = new Throwable[1];
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t * DISTINCT / THREADS;
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                    // 各线程从不同位置开始提交全部URL，保证同一URL会被并发提交
+                    for (int i = 0; i < DISTINCT; i++) {
+                        int index = (offset + i) % DISTINCT;
+                        if (context.claim(urls[index])) claims.incrementAndGet(index);
+                    }
+                } catch (Throwable ex) {
+                    synchronized (failure) {
+                        failure[0] = ex;
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) thread.join();
+
+        synchronized (failure) {
+            if (failure[0] != null) throw new AssertionError(failure[0]);
+        }
+        for (int i = 0; i < DISTINCT; i++) {
+            assertEquals(urls[i], 1, claims.get(i));
+        }
+        assertEquals(DISTINCT, context.loadedUrls.size());
+    }
+
+    @Test
+    public void claimIsRejectedAfterFirstSuccess() {
+        BurpExtender.DomainContext context = new BurpExtender.DomainContext(false);
+        assertTrue(context.claim("https://example.com/app.js"));
+        assertFalse(context.claim("https://example.com/app.js"));
+        assertTrue(context.claim("https://example.com/app.js?v=2"));
+    }
+}
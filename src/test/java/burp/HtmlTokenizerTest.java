@@ -0,0 +1,36 @@
+package burp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class HtmlTokenizerTest {
+
+    @Test
+    public void decodesCommonEntities() {
+        assertEquals("/a?x=1&y=2", HtmlTokenizer.decodeEntities("/a?x=1&amp;y=2"));
+        assertEquals("/a'b\"c/", HtmlTokenizer.decodeEntities("/a&#39;b&quot;c&#x2F;"));
+        assertEquals("&unknown;&", HtmlTokenizer.decodeEntities("&unknown;&"));
+        // ';' 距离'&'超过10个字符时不是实体
+        assertEquals("&#00000000065;", HtmlTokenizer.decodeEntities("&#00000000065;"));
+    }
+
+    // 1MB全是'&'且没有';'的属性值应在线性时间内处理完
+    @Test(timeout = 2000)
+    public void ampersandFloodIsLinear() {
+        char[] amps = new char[1 << 20];
+        Arrays.fill(amps, '&');
+        String value = new String(amps);
+        assertEquals(value, HtmlTokenizer.decodeEntities(value));
+
+        String page = "<a href=\"" + value + "\">x</a><img src=\"/static/logo.png\">";
+        List<String> links = new ArrayList<>();
+        HtmlTokenizer.scanLinks(page, 0, page.length(), (link, absolute) -> links.add(link));
+        assertTrue(links.toString(), links.contains("/static/logo.png"));
+    }
+}
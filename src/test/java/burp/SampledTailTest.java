@@ -0,0 +1,44 @@
+package burp;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+// 采样尾部从任意位置开始时的提取
+public class SampledTailTest {
+
+    private static List<String> scanTail(String body, int cut) {
+        List<String> links = new ArrayList<>();
+        BurpExtender.sampledTailScanner("application/javascript")
+                .scan(body.substring(cut), 0, body.length() - cut, (value, absolute) -> links.add(value));
+        return links;
+    }
+
+    @Test
+    public void tailCutInsideStringLiteral() {
+        String head = "var s=\"long message, see the docs ";
+        String tail = "for details\";r.p=\"/static/\";fetch(\"/api/v2/orders\");i.src='/img/logo.png';"
+                + "var u=\"https://cdn.example.com/lib/app.js\";";
+        String body = head + tail;
+
+        // 尾部的起点位于字符串字面量中间
+        List<String> links = scanTail(body, head.length());
+        assertTrue(links.toString(), links.contains("/api/v2/orders"));
+        assertTrue(links.toString(), links.contains("/img/logo.png"));
+        assertTrue(links.toString(), links.contains("https://cdn.example.com/lib/app.js"));
+    }
+
+    @Test
+    public void tailCutInsideComment() {
+        String head = "/* build ";
+        String tail = "info */ import(\"./chunks/page.js\");var a='/api/v1/users/list';";
+        String body = head + tail;
+
+        List<String> links = scanTail(body, head.length());
+        assertTrue(links.toString(), links.contains("./chunks/page.js"));
+        assertTrue(links.toString(), links.contains("/api/v1/users/list"));
+    }
+}